@@ -19,6 +19,15 @@ export const bookApi = {
     })
   },
 
+  // 游标分页获取图书
+  getBookPage(params) {
+    return request({
+      url: '/books/page',
+      method: 'get',
+      params
+    })
+  },
+
   // 根据ID获取图书
   getBookById(id) {
     return request({
@@ -36,6 +45,15 @@ export const bookApi = {
     })
   },
 
+  // 按差值调整库存（正数入库、负数下架）
+  adjustStock(id, delta) {
+    return request({
+      url: `/books/${id}/stock`,
+      method: 'post',
+      params: { delta }
+    })
+  },
+
   // 删除图书
   deleteBook(id) {
     return request({
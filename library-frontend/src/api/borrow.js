@@ -26,6 +26,24 @@ export const borrowApi = {
     })
   },
 
+  // 批量借阅：data = { userId, bookIds, allOrNothing }
+  borrowBooks(data) {
+    return request({
+      url: '/borrows/batch',
+      method: 'post',
+      data
+    })
+  },
+
+  // 批量归还：data = { borrowIds, allOrNothing }
+  returnBooks(data) {
+    return request({
+      url: '/borrows/return/batch',
+      method: 'put',
+      data
+    })
+  },
+
   // 根据ID获取借阅记录
   getBorrowById(id) {
     return request({
@@ -34,6 +52,23 @@ export const borrowApi = {
     })
   },
 
+  // 获取最近借阅记录
+  getRecentBorrows() {
+    return request({
+      url: '/borrows/recent',
+      method: 'get'
+    })
+  },
+
+  // 逾期借阅记录（管理员），params = { size, cursor }
+  getOverdueBorrows(params) {
+    return request({
+      url: '/borrows/overdue',
+      method: 'get',
+      params
+    })
+  },
+
   // 获取所有借阅记录
   getAllBorrows() {
     return request({
@@ -0,0 +1,11 @@
+import request from '@/utils/request'
+
+export const statsApi = {
+  // 获取仪表盘汇总统计
+  getSummary() {
+    return request({
+      url: '/stats/summary',
+      method: 'get'
+    })
+  }
+}
@@ -53,10 +53,11 @@ export const userApi = {
   },
 
   // 退出登录
-  logout() {
+  logout(refreshToken) {
     return request({
       url: '/users/logout',
-      method: 'post'
+      method: 'post',
+      data: refreshToken ? { refreshToken } : undefined
     })
   }
 }
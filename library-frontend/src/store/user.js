@@ -21,6 +21,7 @@ export const useUserStore = defineStore('user', {
           this.token = res.data.token || ''
           this.userInfo = res.data.user || res.data
           localStorage.setItem('token', this.token)
+          localStorage.setItem('refreshToken', res.data.refreshToken || '')
           localStorage.setItem('userInfo', JSON.stringify(this.userInfo))
           return { success: true }
         }
@@ -44,8 +45,8 @@ export const useUserStore = defineStore('user', {
 
     async logout() {
       try {
-        // 调用后端退出接口（可选）
-        await userApi.logout()
+        // 调用后端退出接口，吊销访问 Token 和刷新 Token
+        await userApi.logout(localStorage.getItem('refreshToken'))
       } catch (error) {
         // 即使后端调用失败，也清除本地数据
         console.error('退出登录失败:', error)
@@ -54,6 +55,7 @@ export const useUserStore = defineStore('user', {
         this.userInfo = null
         this.token = ''
         localStorage.removeItem('token')
+        localStorage.removeItem('refreshToken')
         localStorage.removeItem('userInfo')
       }
     },
@@ -23,6 +23,36 @@ service.interceptors.request.use(
   }
 )
 
+function clearLogin() {
+  localStorage.removeItem('token')
+  localStorage.removeItem('refreshToken')
+  localStorage.removeItem('userInfo')
+  router.push('/login')
+}
+
+// 访问 Token 过期后用刷新 Token 换取新 Token，并发的多个 401 只刷新一次
+let refreshing = null
+
+function refreshToken() {
+  if (!refreshing) {
+    const token = localStorage.getItem('refreshToken')
+    refreshing = (token
+      ? axios.post('/api/users/refresh', { refreshToken: token }).then(({ data: res }) => {
+          if (res.code !== 200 || !res.data) {
+            throw new Error(res.message || '登录已过期')
+          }
+          localStorage.setItem('token', res.data.token)
+          localStorage.setItem('refreshToken', res.data.refreshToken)
+          return res.data.token
+        })
+      : Promise.reject(new Error('登录已过期'))
+    ).finally(() => {
+      refreshing = null
+    })
+  }
+  return refreshing
+}
+
 // 响应拦截器
 service.interceptors.response.use(
   response => {
@@ -34,9 +64,7 @@ service.interceptors.response.use(
       
       // 401: 未授权，清除token并跳转到登录页
       if (res.code === 401) {
-        localStorage.removeItem('token')
-        localStorage.removeItem('userInfo')
-        router.push('/login')
+        clearLogin()
       }
       
       // 500: 服务器错误，跳转到错误页
@@ -49,16 +77,27 @@ service.interceptors.response.use(
       return res
     }
   },
-  error => {
+  async error => {
     console.error('响应错误:', error)
     
     // HTTP状态码处理
     if (error.response) {
       const status = error.response.status
+      const config = error.config
+      if (status === 401 && !config._retried) {
+        // 刷新成功后重发原请求，刷新失败才回到登录页
+        try {
+          const token = await refreshToken()
+          config._retried = true
+          config.headers['Authorization'] = `Bearer ${token}`
+          return service(config)
+        } catch (e) {
+          clearLogin()
+          return Promise.reject(error)
+        }
+      }
       if (status === 401) {
-        localStorage.removeItem('token')
-        localStorage.removeItem('userInfo')
-        router.push('/login')
+        clearLogin()
       } else if (status === 404) {
         router.push('/404')
       } else if (status >= 500) {
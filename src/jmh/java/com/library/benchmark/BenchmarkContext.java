@@ -0,0 +1,70 @@
+package com.library.benchmark;
+
+import com.library.LibraryApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 基准测试用的应用上下文：H2 内存库（MySQL 兼容模式）+ 随机端口，关闭 SQL 日志
+ */
+final class BenchmarkContext {
+
+    static final String JWT_SECRET = "library-benchmark-secret-key-at-least-256-bits-long-0123456789";
+
+    // IGNORE_UNKNOWN_SETTINGS：prod 配置透传给 MySQL 驱动的参数（cachePrepStmts 等）H2 不认识，忽略即可
+    private static final String[] DATASOURCE = {
+            "server.port=0",
+            "spring.datasource.url=jdbc:h2:mem:bench;MODE=MySQL;NON_KEYWORDS=USER;DB_CLOSE_DELAY=-1;IGNORE_UNKNOWN_SETTINGS=TRUE",
+            "spring.datasource.driver-class-name=org.h2.Driver",
+            "spring.datasource.username=sa",
+            "spring.datasource.password=",
+            "spring.jpa.hibernate.ddl-auto=create-drop",
+            "spring.flyway.enabled=false",
+            "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+            "jwt.secret=" + JWT_SECRET
+    };
+
+    private static final String[] QUIET = {
+            "spring.jpa.show-sql=false",
+            "spring.jpa.properties.hibernate.format_sql=false",
+            "spring.jpa.properties.hibernate.use_sql_comments=false",
+            "logging.level.root=WARN",
+            "logging.level.com.library=WARN",
+            "logging.level.org.hibernate.SQL=WARN",
+            "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN"
+    };
+
+    private BenchmarkContext() {
+    }
+
+    static ConfigurableApplicationContext start(String... extraProperties) {
+        return run(DATASOURCE, QUIET, extraProperties);
+    }
+
+    /**
+     * 保留 application.yml（及所激活 profile）中的 SQL 与日志配置，用于对比日志开销
+     */
+    static ConfigurableApplicationContext startWithLogging(String... extraProperties) {
+        return run(DATASOURCE, extraProperties);
+    }
+
+    /**
+     * 以命令行参数传入：优先级高于 application.yml，后面的同名参数覆盖前面的
+     */
+    private static ConfigurableApplicationContext run(String[]... groups) {
+        Map<String, String> properties = new LinkedHashMap<>();
+        for (String[] group : groups) {
+            for (String property : group) {
+                int index = property.indexOf('=');
+                properties.put(property.substring(0, index), property.substring(index + 1));
+            }
+        }
+        String[] args = properties.entrySet().stream()
+                .map(entry -> "--" + entry.getKey() + "=" + entry.getValue())
+                .toArray(String[]::new);
+        return new SpringApplicationBuilder(LibraryApplication.class).run(args);
+    }
+}
@@ -0,0 +1,59 @@
+package com.library.benchmark;
+
+import com.library.dto.BookDTO;
+import com.library.entity.Book;
+import com.library.entity.Category;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 基准测试用的内存样本数据
+ */
+final class BenchmarkData {
+
+    private BenchmarkData() {
+    }
+
+    static List<Book> books(int size) {
+        Category category = new Category();
+        category.setId(1L);
+        category.setName("计算机");
+        LocalDateTime now = LocalDateTime.now();
+        List<Book> books = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Book book = new Book();
+            book.setId((long) i + 1);
+            book.setTitle("深入理解Java虚拟机 第" + i + "版");
+            book.setAuthor("周志明");
+            book.setIsbn("978-7-111-" + String.format("%05d", i));
+            book.setDescription("JVM 高级特性与最佳实践，覆盖内存管理、执行子系统、程序编译与代码优化。");
+            book.setStock(i % 20);
+            book.setPrice(new BigDecimal("129.00"));
+            book.setCategory(category);
+            book.setCreatedAt(now);
+            book.setUpdatedAt(now);
+            books.add(book);
+        }
+        return books;
+    }
+
+    static List<BookDTO> bookDTOs(int size) {
+        List<BookDTO> dtos = new ArrayList<>(size);
+        for (Book book : books(size)) {
+            BookDTO dto = new BookDTO();
+            dto.setId(book.getId());
+            dto.setTitle(book.getTitle());
+            dto.setAuthor(book.getAuthor());
+            dto.setIsbn(book.getIsbn());
+            dto.setDescription(book.getDescription());
+            dto.setStock(book.getStock());
+            dto.setPrice(book.getPrice());
+            dto.setCategoryId(book.getCategory().getId());
+            dtos.add(dto);
+        }
+        return dtos;
+    }
+}
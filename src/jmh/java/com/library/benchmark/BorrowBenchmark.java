@@ -0,0 +1,103 @@
+package com.library.benchmark;
+
+import com.library.entity.Book;
+import com.library.entity.Borrow;
+import com.library.entity.User;
+import com.library.repository.BookRepository;
+import com.library.repository.UserRepository;
+import com.library.service.BorrowService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 热门图书并发借还：所有线程借同一本书，每次借阅后立即归还。
+ * 单线程与满核线程两组对比吞吐的扩展性；每轮结束校验库存从未变负且借还后回到初始值。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class BorrowBenchmark {
+
+    private static final int USERS = 512;
+    private static final int INITIAL_STOCK = 1_000_000;
+
+    private ConfigurableApplicationContext context;
+    private BorrowService borrowService;
+    private BookRepository bookRepository;
+    private Long bookId;
+    private final List<Long> userIds = new ArrayList<>();
+    private final AtomicInteger nextUser = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("spring.datasource.hikari.maximum-pool-size=32");
+        borrowService = context.getBean(BorrowService.class);
+        bookRepository = context.getBean(BookRepository.class);
+        UserRepository userRepository = context.getBean(UserRepository.class);
+
+        Book book = new Book();
+        book.setTitle("高等数学（第七版）");
+        book.setStock(INITIAL_STOCK);
+        bookId = bookRepository.save(book).getId();
+
+        for (int i = 0; i < USERS; i++) {
+            User user = new User();
+            user.setUsername("bench" + i);
+            user.setPassword("password");
+            user.setRole("user");
+            userIds.add(userRepository.save(user).getId());
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void checkStock() {
+        int stock = bookRepository.findById(bookId).orElseThrow().getStock();
+        if (stock != INITIAL_STOCK) {
+            throw new IllegalStateException("库存不一致: expected=" + INITIAL_STOCK + ", actual=" + stock);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    /**
+     * 每个线程固定一个借阅用户，避免同一用户重复借同一本书
+     */
+    @State(Scope.Thread)
+    public static class Borrower {
+
+        Long userId;
+
+        @Setup(Level.Trial)
+        public void setUp(BorrowBenchmark benchmark) {
+            userId = benchmark.userIds.get(benchmark.nextUser.getAndIncrement() % USERS);
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Borrow borrowAndReturnSingleThread(Borrower borrower) {
+        return borrowAndReturn(borrower);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public Borrow borrowAndReturnContended(Borrower borrower) {
+        return borrowAndReturn(borrower);
+    }
+
+    private Borrow borrowAndReturn(Borrower borrower) {
+        Borrow borrow = borrowService.borrowBook(borrower.userId, bookId);
+        return borrowService.returnBook(borrow.getId());
+    }
+}
@@ -0,0 +1,52 @@
+package com.library.benchmark;
+
+import com.library.dto.BookDTO;
+import com.library.entity.Book;
+import com.library.mapper.BookMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.beans.BeanUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 列表接口的实体 -> DTO 转换：原先的 BeanUtils.copyProperties 反射拷贝（基线）对比当前的 BookMapper 显式赋值
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DtoMappingBenchmark {
+
+    @Param({"100", "10000"})
+    private int size;
+
+    private List<Book> books;
+
+    @Setup
+    public void setUp() {
+        books = BenchmarkData.books(size);
+    }
+
+    @Benchmark
+    public List<BookDTO> beanUtilsCopyProperties() {
+        List<BookDTO> result = new ArrayList<>(books.size());
+        for (Book book : books) {
+            BookDTO dto = new BookDTO();
+            BeanUtils.copyProperties(book, dto);
+            if (book.getCategory() != null) {
+                dto.setCategoryId(book.getCategory().getId());
+            }
+            result.add(dto);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public List<BookDTO> bookMapper() {
+        return BookMapper.toDTOList(books);
+    }
+}
@@ -0,0 +1,123 @@
+package com.library.benchmark;
+
+import com.library.entity.Book;
+import com.library.entity.User;
+import com.library.repository.BookRepository;
+import com.library.repository.UserRepository;
+import com.library.service.BorrowService;
+import com.library.util.JwtUtil;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 真实 HTTP 压测：高并发客户端请求 /api/books 与 /api/borrows，对比平台线程与虚拟线程两种执行模式的
+ * 吞吐与延迟分位数（SampleTime 模式输出 p99）。
+ * 连接池固定 20，客户端并发远大于 Tomcat 默认 200 个工作线程，以体现请求线程数的差异。
+ * virtualThreads=true 需在 JDK 21 上运行：mvn -Pjava21,benchmark package，JDK 17 下该开关不生效。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+@Threads(512)
+public class HttpLoadBenchmark {
+
+    private static final int BOOKS = 2_000;
+    private static final int USERS = 50;
+    private static final int BORROWS_PER_USER = 4;
+
+    @Param({"false", "true"})
+    public boolean virtualThreads;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private HttpRequest booksRequest;
+    private HttpRequest borrowsRequest;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(
+                "spring.threads.virtual.enabled=" + virtualThreads,
+                "spring.datasource.hikari.maximum-pool-size=20",
+                "spring.datasource.hikari.minimum-idle=20",
+                "library.db-limiter.enabled=" + virtualThreads,
+                "library.db-limiter.max-concurrent=40",
+                // 关闭响应字节缓存，/api/books 每次都查库，比较的是两种线程模式下的数据库并发
+                "library.cache.payloads.max-size=0");
+        BookRepository bookRepository = context.getBean(BookRepository.class);
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        BorrowService borrowService = context.getBean(BorrowService.class);
+
+        for (Book book : BenchmarkData.books(BOOKS)) {
+            book.setId(null);
+            book.setCategory(null);
+            book.setStock(USERS);
+            bookRepository.save(book);
+        }
+        User admin = new User();
+        admin.setUsername("bench-admin");
+        admin.setPassword("password");
+        admin.setRole("admin");
+        Long adminId = userRepository.save(admin).getId();
+        long firstBookId = bookRepository.findAll().get(0).getId();
+        for (int i = 0; i < USERS; i++) {
+            User user = new User();
+            user.setUsername("bench" + i);
+            user.setPassword("password");
+            user.setRole("user");
+            Long userId = userRepository.save(user).getId();
+            for (int j = 0; j < BORROWS_PER_USER; j++) {
+                borrowService.borrowBook(userId, firstBookId + j);
+            }
+        }
+
+        String token = context.getBean(JwtUtil.class).generateToken(adminId, "bench-admin", "admin");
+        String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        booksRequest = get(baseUrl + "/api/books", token);
+        borrowsRequest = get(baseUrl + "/api/borrows", token);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int books() throws Exception {
+        return send(booksRequest);
+    }
+
+    @Benchmark
+    public int borrows() throws Exception {
+        return send(borrowsRequest);
+    }
+
+    private int send(HttpRequest request) throws Exception {
+        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("请求失败: " + request.uri() + " -> " + response.statusCode());
+        }
+        return response.body().length;
+    }
+
+    private static HttpRequest get(String url, String token) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .header("Authorization", "Bearer " + token)
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+    }
+}
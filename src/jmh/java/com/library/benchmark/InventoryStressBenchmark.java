@@ -0,0 +1,146 @@
+package com.library.benchmark;
+
+import com.library.entity.Book;
+import com.library.entity.User;
+import com.library.exception.BusinessException;
+import com.library.repository.BookRepository;
+import com.library.repository.UserRepository;
+import com.library.service.BorrowService;
+import com.library.service.InventoryService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 热门图书抢借压测：少量热门图书、库存远小于并发需求，所有线程随机借还，大量借阅因库存不足被拒绝。
+ * inventoryEngine=false 为逐次条件更新 book 行，true 为内存计数器 + 增量日志。
+ * 每轮结束合并日志后逐本校验：book.stock 不为负，且 book.stock + 未归还借阅数 == 初始库存（没有超卖也没有丢失），
+ * 启用引擎时计数器与数据库一致；不一致时抛异常使基准失败
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(64)
+public class InventoryStressBenchmark {
+
+    private static final int HOT_BOOKS = 10;
+    private static final int INITIAL_STOCK = 16;
+    private static final int USERS_PER_THREAD = 8;
+    private static final int MAX_THREADS = 64;
+    // 每个线程同时持有的借阅上限：64 个线程最多需要 256 本，热门图书共 160 本
+    private static final int MAX_OPEN_PER_THREAD = 4;
+
+    private static final String COUNT_OPEN_SQL = "select count(*) from borrow where book_id = ? and returned = false";
+
+    @Param({"false", "true"})
+    public boolean inventoryEngine;
+
+    private ConfigurableApplicationContext context;
+    private BorrowService borrowService;
+    private BookRepository bookRepository;
+    private InventoryService inventoryService;
+    private JdbcTemplate jdbcTemplate;
+    private final List<Long> bookIds = new ArrayList<>();
+    private final List<Long> userIds = new ArrayList<>();
+    private final AtomicInteger nextThread = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(
+                "library.inventory.enabled=" + inventoryEngine,
+                "library.inventory.flush-interval=200",
+                "spring.datasource.hikari.maximum-pool-size=32");
+        borrowService = context.getBean(BorrowService.class);
+        bookRepository = context.getBean(BookRepository.class);
+        inventoryService = context.getBean(InventoryService.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        UserRepository userRepository = context.getBean(UserRepository.class);
+
+        for (int i = 0; i < HOT_BOOKS; i++) {
+            Book book = new Book();
+            book.setTitle("热门教材 " + i);
+            book.setStock(INITIAL_STOCK);
+            bookIds.add(bookRepository.save(book).getId());
+        }
+        for (int i = 0; i < MAX_THREADS * USERS_PER_THREAD; i++) {
+            User user = new User();
+            user.setUsername("bench" + i);
+            user.setPassword("password");
+            user.setRole("user");
+            userIds.add(userRepository.save(user).getId());
+        }
+    }
+
+    /**
+     * 迭代结束时压测线程都已停止，没有进行中的借还事务
+     */
+    @TearDown(Level.Iteration)
+    public void checkNoOversell() {
+        inventoryService.flush();
+        for (Long bookId : bookIds) {
+            int stock = bookRepository.findById(bookId).orElseThrow().getStock();
+            long open = jdbcTemplate.queryForObject(COUNT_OPEN_SQL, Long.class, bookId);
+            if (stock < 0 || stock + open != INITIAL_STOCK) {
+                throw new IllegalStateException("库存不一致: bookId=" + bookId + ", stock=" + stock
+                        + ", open=" + open + ", initial=" + INITIAL_STOCK);
+            }
+            if (inventoryEngine && inventoryService.available(bookId) != stock) {
+                throw new IllegalStateException("计数器与数据库不一致: bookId=" + bookId + ", stock=" + stock
+                        + ", counter=" + inventoryService.available(bookId));
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    /**
+     * 每个线程使用自己的一组用户，并记录自己尚未归还的借阅
+     */
+    @State(Scope.Thread)
+    public static class Borrower {
+
+        List<Long> userIds;
+        final Deque<Long> open = new ArrayDeque<>();
+
+        @Setup(Level.Trial)
+        public void setUp(InventoryStressBenchmark benchmark) {
+            int from = (benchmark.nextThread.getAndIncrement() % MAX_THREADS) * USERS_PER_THREAD;
+            userIds = benchmark.userIds.subList(from, from + USERS_PER_THREAD);
+        }
+    }
+
+    /**
+     * 达到持有上限或随机选中时归还最早的一本，否则随机借一本热门图书；返回是否借还成功
+     */
+    @Benchmark
+    public boolean borrowOrReturn(Borrower borrower) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (borrower.open.size() >= MAX_OPEN_PER_THREAD || (!borrower.open.isEmpty() && random.nextBoolean())) {
+            borrowService.returnBook(borrower.open.poll());
+            return true;
+        }
+        Long userId = borrower.userIds.get(random.nextInt(USERS_PER_THREAD));
+        Long bookId = bookIds.get(random.nextInt(HOT_BOOKS));
+        try {
+            borrower.open.add(borrowService.borrowBook(userId, bookId).getId());
+            return true;
+        } catch (BusinessException e) {
+            // 库存不足，或该用户已借过这本书
+            return false;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.library.benchmark;
+
+import com.library.service.impl.TokenRevocationServiceImpl;
+import com.library.util.BloomFilter;
+import com.library.util.JwtUtil;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.beans.DirectFieldAccessor;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JwtUtil 签发与解析：parseCached 为同一 Token 重复请求（命中 Claims 缓存），
+ * parseUncached 在远大于缓存容量的 Token 池中轮换，基本每次都要完整验签；
+ * revocationCheck 为每个请求的吊销检查（名单中已有 10 万条记录，被检查的 Token 未被吊销）
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtBenchmark {
+
+    private static final int TOKEN_POOL = 4096;
+    private static final int REVOKED = 100_000;
+
+    private JwtUtil jwtUtil;
+    private JwtUtil smallCacheJwtUtil;
+    private String token;
+    private String[] tokens;
+    private int cursor;
+    private TokenRevocationServiceImpl revocationService;
+    private String jti;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = newJwtUtil(10000);
+        token = jwtUtil.generateToken(1L, "admin", "admin");
+
+        smallCacheJwtUtil = newJwtUtil(16);
+        tokens = new String[TOKEN_POOL];
+        for (int i = 0; i < TOKEN_POOL; i++) {
+            tokens[i] = smallCacheJwtUtil.generateToken((long) i, "user" + i, "user");
+        }
+
+        // 直接填充内存结构，不经过数据库
+        revocationService = new TokenRevocationServiceImpl();
+        BloomFilter filter = new BloomFilter(REVOKED * 2, 0.001);
+        DirectFieldAccessor accessor = new DirectFieldAccessor(revocationService);
+        @SuppressWarnings("unchecked")
+        Map<String, Long> revoked = (Map<String, Long>) accessor.getPropertyValue("revoked");
+        long expiresAt = System.currentTimeMillis() + 3600000L;
+        for (int i = 0; i < REVOKED; i++) {
+            String revokedJti = UUID.randomUUID().toString();
+            revoked.put(revokedJti, expiresAt);
+            filter.put(revokedJti);
+        }
+        accessor.setPropertyValue("filter", filter);
+        jti = jwtUtil.getClaimsFromToken(token).getId();
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken(1L, "admin", "admin");
+    }
+
+    @Benchmark
+    public Claims parseCached() {
+        return jwtUtil.getClaimsFromToken(token);
+    }
+
+    @Benchmark
+    public Claims parseUncached() {
+        cursor = (cursor + 1) & (TOKEN_POOL - 1);
+        return smallCacheJwtUtil.getClaimsFromToken(tokens[cursor]);
+    }
+
+    @Benchmark
+    public boolean revocationCheck() {
+        return revocationService.isRevoked(jti);
+    }
+
+    static JwtUtil newJwtUtil(long cacheMaxSize) {
+        JwtUtil util = new JwtUtil();
+        DirectFieldAccessor accessor = new DirectFieldAccessor(util);
+        accessor.setPropertyValue("secret", BenchmarkContext.JWT_SECRET);
+        accessor.setPropertyValue("expiration", 3600000L);
+        accessor.setPropertyValue("refreshExpiration", 604800000L);
+        accessor.setPropertyValue("cacheMaxSize", cacheMaxSize);
+        accessor.setPropertyValue("cacheTtl", 600000L);
+        util.init();
+        return util;
+    }
+}
@@ -0,0 +1,113 @@
+package com.library.benchmark;
+
+import com.library.entity.Book;
+import com.library.entity.Category;
+import com.library.entity.User;
+import com.library.repository.BookRepository;
+import com.library.repository.CategoryRepository;
+import com.library.repository.UserRepository;
+import com.library.util.JwtUtil;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 热点列表接口压测：对比关闭 / 开启响应字节缓存时 /api/categories 与 /api/books/page 首页的吞吐，
+ * gzip=true 时客户端带 Accept-Encoding: gzip，命中缓存时直接发送预压缩字节
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+@Threads(64)
+public class PayloadCacheBenchmark {
+
+    private static final int BOOKS = 2_000;
+    private static final int CATEGORIES = 50;
+
+    @Param({"0", "128"})
+    public int payloadCacheSize;
+
+    @Param({"false", "true"})
+    public boolean gzip;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private HttpRequest categoriesRequest;
+    private HttpRequest firstPageRequest;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("library.cache.payloads.max-size=" + payloadCacheSize);
+        CategoryRepository categoryRepository = context.getBean(CategoryRepository.class);
+        BookRepository bookRepository = context.getBean(BookRepository.class);
+        UserRepository userRepository = context.getBean(UserRepository.class);
+
+        for (int i = 0; i < CATEGORIES; i++) {
+            Category category = new Category();
+            category.setName("分类" + i);
+            categoryRepository.save(category);
+        }
+        for (Book book : BenchmarkData.books(BOOKS)) {
+            book.setId(null);
+            book.setCategory(null);
+            bookRepository.save(book);
+        }
+        User admin = new User();
+        admin.setUsername("bench-admin");
+        admin.setPassword("password");
+        admin.setRole("admin");
+        Long adminId = userRepository.save(admin).getId();
+
+        String token = context.getBean(JwtUtil.class).generateToken(adminId, "bench-admin", "admin");
+        String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        categoriesRequest = get(baseUrl + "/api/categories", token);
+        firstPageRequest = get(baseUrl + "/api/books/page?size=100", token);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int categories() throws Exception {
+        return send(categoriesRequest);
+    }
+
+    @Benchmark
+    public int booksFirstPage() throws Exception {
+        return send(firstPageRequest);
+    }
+
+    private int send(HttpRequest request) throws Exception {
+        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("请求失败: " + request.uri() + " -> " + response.statusCode());
+        }
+        return response.body().length;
+    }
+
+    private HttpRequest get(String url, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(url))
+                .header("Authorization", "Bearer " + token)
+                .timeout(Duration.ofSeconds(30))
+                .GET();
+        if (gzip) {
+            builder.header("Accept-Encoding", "gzip");
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,106 @@
+package com.library.benchmark;
+
+import com.library.dto.BorrowDTO;
+import com.library.entity.Book;
+import com.library.entity.Borrow;
+import com.library.entity.User;
+import com.library.repository.BookRepository;
+import com.library.repository.UserRepository;
+import com.library.service.BorrowService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 默认配置与 prod 配置对比：默认配置按 application.yml 原样输出 SQL、格式化 SQL 与 SQL 注释并同步写控制台，
+ * prod 配置关闭 SQL 日志、异步输出日志并开启 JDBC 批量。
+ * 负载为借还（多条写 SQL）与按用户查询借阅记录（带参数的读 SQL）。
+ * 日志输出量很大，建议重定向：mvn -Pbenchmark test-compile exec:exec -Djmh.args="ProfileBenchmark" > /dev/null
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(4)
+public class ProfileBenchmark {
+
+    private static final int USERS = 64;
+    private static final int BOOKS = 64;
+    private static final int BORROWS_PER_USER = 5;
+
+    @Param({"default", "prod"})
+    public String profile;
+
+    private ConfigurableApplicationContext context;
+    private BorrowService borrowService;
+    private final List<Long> userIds = new ArrayList<>();
+    private final List<Long> bookIds = new ArrayList<>();
+    private final AtomicInteger nextUser = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = "prod".equals(profile)
+                ? BenchmarkContext.startWithLogging("spring.profiles.active=prod")
+                : BenchmarkContext.startWithLogging();
+        borrowService = context.getBean(BorrowService.class);
+        BookRepository bookRepository = context.getBean(BookRepository.class);
+        UserRepository userRepository = context.getBean(UserRepository.class);
+
+        for (Book book : BenchmarkData.books(BOOKS)) {
+            book.setId(null);
+            book.setCategory(null);
+            book.setStock(1_000_000);
+            bookIds.add(bookRepository.save(book).getId());
+        }
+        for (int i = 0; i < USERS; i++) {
+            User user = new User();
+            user.setUsername("bench" + i);
+            user.setPassword("password");
+            user.setRole("user");
+            Long userId = userRepository.save(user).getId();
+            userIds.add(userId);
+            for (int j = 0; j < BORROWS_PER_USER; j++) {
+                borrowService.borrowBook(userId, bookIds.get((i + j) % BOOKS));
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    /**
+     * 每个线程固定一个用户，借阅的图书与预置借阅错开，避免重复借同一本书
+     */
+    @State(Scope.Thread)
+    public static class Borrower {
+
+        Long userId;
+        Long bookId;
+
+        @Setup(Level.Trial)
+        public void setUp(ProfileBenchmark benchmark) {
+            int index = benchmark.nextUser.getAndIncrement() % USERS;
+            userId = benchmark.userIds.get(index);
+            bookId = benchmark.bookIds.get((index + BORROWS_PER_USER) % BOOKS);
+        }
+    }
+
+    @Benchmark
+    public Borrow borrowAndReturn(Borrower borrower) {
+        Borrow borrow = borrowService.borrowBook(borrower.userId, borrower.bookId);
+        return borrowService.returnBook(borrow.getId());
+    }
+
+    @Benchmark
+    public List<BorrowDTO> findByUser(Borrower borrower) {
+        return borrowService.findByUser(borrower.userId);
+    }
+}
@@ -0,0 +1,46 @@
+package com.library.benchmark;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.common.Result;
+import com.library.dto.BookDTO;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Result&lt;List&lt;BookDTO&gt;&gt; 的 Jackson 序列化，ObjectMapper 配置与 application.yml 的 spring.jackson 一致
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"100", "10000"})
+    private int size;
+
+    private ObjectMapper objectMapper;
+    private Result<List<BookDTO>> payload;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .simpleDateFormat("yyyy-MM-dd HH:mm:ss")
+                .timeZone(TimeZone.getTimeZone("Asia/Shanghai"))
+                .serializationInclusion(JsonInclude.Include.NON_NULL)
+                .build();
+        payload = Result.success(BenchmarkData.bookDTOs(size));
+    }
+
+    @Benchmark
+    public byte[] serializeBookList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(payload);
+    }
+}
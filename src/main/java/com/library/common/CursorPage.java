@@ -0,0 +1,26 @@
+package com.library.common;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 游标分页结果：客户端用 nextCursor 请求下一页，nextCursor 为空表示已到末页
+ */
+@Data
+public class CursorPage<T> {
+
+    private List<T> content;     // 当前页数据
+    private Integer size;        // 当前页条数
+    private String nextCursor;   // 下一页游标
+    private Boolean hasNext;     // 是否还有下一页
+
+    public static <T> CursorPage<T> of(List<T> content, String nextCursor) {
+        CursorPage<T> page = new CursorPage<>();
+        page.setContent(content);
+        page.setSize(content.size());
+        page.setNextCursor(nextCursor);
+        page.setHasNext(nextCursor != null);
+        return page;
+    }
+}
@@ -0,0 +1,37 @@
+package com.library.common;
+
+import com.library.exception.BusinessException;
+
+/**
+ * 导入 / 导出文件格式
+ */
+public enum DataFormat {
+
+    NDJSON("ndjson", "application/x-ndjson"),
+    CSV("csv", "text/csv;charset=UTF-8");
+
+    private final String extension;
+    private final String contentType;
+
+    DataFormat(String extension, String contentType) {
+        this.extension = extension;
+        this.contentType = contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public static DataFormat of(String value) {
+        for (DataFormat format : values()) {
+            if (format.extension.equalsIgnoreCase(value)) {
+                return format;
+            }
+        }
+        throw new BusinessException(400, "不支持的文件格式: " + value);
+    }
+}
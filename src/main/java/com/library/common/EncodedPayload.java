@@ -0,0 +1,7 @@
+package com.library.common;
+
+/**
+ * 预先序列化好的响应体：JSON 字节和对应的 gzip 字节（压缩后不更小时为 null），etag 为生成时的资源版本
+ */
+public record EncodedPayload(String etag, byte[] body, byte[] gzipBody) {
+}
@@ -0,0 +1,31 @@
+package com.library.common;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.security.core.AuthenticatedPrincipal;
+
+/**
+ * 当前请求的登录用户，由 JwtAuthenticationFilter 从 Token 的 Claims 填充，
+ * 控制器做权限判断时直接读取，不再查库
+ */
+@Data
+@AllArgsConstructor
+public class LoginUser implements AuthenticatedPrincipal {
+
+    private Long id;
+
+    private String username;
+
+    // 角色：admin / user
+    private String role;
+
+    public boolean isAdmin() {
+        return "admin".equals(role);
+    }
+
+    // Authentication.getName() 仍返回用户名
+    @Override
+    public String getName() {
+        return username;
+    }
+}
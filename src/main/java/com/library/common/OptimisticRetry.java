@@ -0,0 +1,18 @@
+package com.library.common;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 乐观锁冲突（OptimisticLockingFailureException）时整个事务回滚后自动重试，次数和退避时间见 library.retry.*。
+ * 重试会重新执行整个方法，方法内的副作用必须在提交后才生效（TransactionUtil.afterCommit）；
+ * 在外层事务中被调用时不重试，冲突直接抛给外层
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface OptimisticRetry {
+}
@@ -0,0 +1,17 @@
+package com.library.common;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 方法内的只读查询固定走主库（即使标注了 @Transactional(readOnly = true)）。
+ * 用于结果会按主库版本号打 ETag 或缓存的读取，哪些读取需要标注见 DataSourceConfig；未启用从库时没有影响
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface PrimaryRead {
+}
@@ -0,0 +1,7 @@
+package com.library.common;
+
+/**
+ * 资源版本：用于 HTTP 条件请求的 ETag 与 Last-Modified（毫秒时间戳）
+ */
+public record ResourceVersion(String etag, long lastModified) {
+}
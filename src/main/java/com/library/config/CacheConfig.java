@@ -0,0 +1,70 @@
+package com.library.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+
+/**
+ * 服务层缓存（Spring Cache + Caffeine）。每个缓存的容量和 TTL 可通过
+ * library.cache.&lt;缓存名&gt;.max-size / ttl 单独配置，max-size 设为 0 即关闭该缓存
+ * （例如启用 Hibernate 二级缓存的 l2cache 配置后关闭 books / categories）
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    // 用户缓存：按ID、按用户名
+    public static final String USERS = "users";
+    public static final String USERS_BY_NAME = "usersByName";
+
+    // 不存在的用户名（登录负缓存），与用户名缓存分开，大量随机用户名不会挤掉真实用户
+    public static final String USERNAME_MISSES = "usernameMisses";
+
+    // 分类缓存：按ID、全部分类列表
+    public static final String CATEGORIES = "categories";
+    public static final String CATEGORY_LIST = "categoryList";
+
+    // 图书详情缓存：按ID
+    public static final String BOOKS = "books";
+
+    // 热点列表接口预先序列化、压缩好的响应字节（分类列表、图书列表首页）
+    public static final String PAYLOADS = "payloads";
+
+    private static final long DEFAULT_MAX_SIZE = 10000;
+    private static final long DEFAULT_TTL = 600000;
+
+    @Autowired
+    private Environment environment;
+
+    @Bean
+    public CacheManager cacheManager() {
+        CaffeineCacheManager manager = new CaffeineCacheManager();
+        register(manager, USERS);
+        register(manager, USERS_BY_NAME);
+        register(manager, USERNAME_MISSES);
+        register(manager, CATEGORIES);
+        register(manager, CATEGORY_LIST);
+        register(manager, BOOKS);
+        register(manager, PAYLOADS);
+        // 写入和失效都推迟到事务提交之后，避免提交前被并发读回填旧数据
+        return new TransactionAwareCacheManagerProxy(manager);
+    }
+
+    private void register(CaffeineCacheManager manager, String name) {
+        long maxSize = environment.getProperty("library.cache." + name + ".max-size", Long.class, DEFAULT_MAX_SIZE);
+        long ttl = environment.getProperty("library.cache." + name + ".ttl", Long.class, DEFAULT_TTL);
+        manager.registerCustomCache(name, Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(ttl))
+                .recordStats()
+                .build());
+    }
+}
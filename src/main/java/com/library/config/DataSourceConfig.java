@@ -0,0 +1,89 @@
+package com.library.config;
+
+import com.library.util.ReadYourWritesTracker;
+import com.zaxxer.hikari.HikariDataSource;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * 主从读写分离（library.datasource.replica.enabled=true 时启用，否则使用 Spring Boot 默认的单数据源）：
+ * 主库沿用 spring.datasource 配置，从库使用 library.datasource.replica 配置，
+ * 标注 @Transactional(readOnly = true) 的查询走从库。以下读取必须留在主库：
+ * <ul>
+ *     <li>读写事务内的读取：带 @Cacheable 的按ID/按用户名查询、写操作前的归属校验。
+ *     缓存失效后立即从延迟的从库回填会把旧数据缓存到 TTL 结束</li>
+ *     <li>响应带 CatalogVersionService 版本号（ETag/Last-Modified）的读取：版本号在主库提交后递增，
+ *     从库落后时会把旧数据标记成新版本，客户端之后一直拿到 304。这类只读方法标注 {@link com.library.common.PrimaryRead}，
+ *     如 BookServiceImpl 的 findAll/findByCategory/findByTitleContaining/search</li>
+ *     <li>按版本缓存的响应字节：PayloadCacheService 在主库上执行 loader（PrimaryReads）</li>
+ *     <li>用户自己借还后一段时间内的查询（ReadYourWritesTracker）</li>
+ * </ul>
+ * 不带版本号、不缓存的只读查询（游标分页的后续页/筛选结果、借阅记录、统计、导出等）可以接受复制延迟，走从库
+  */
+@Configuration
+@ConditionalOnProperty(name = "library.datasource.replica.enabled", havingValue = "true")
+public class DataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName(ReadWriteRoutingDataSource.PRIMARY);
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("library.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(DataSourceProperties properties,
+                                              @Value("${library.datasource.replica.url}") String url,
+                                              @Value("${library.datasource.replica.username:${spring.datasource.username:}}") String username,
+                                              @Value("${library.datasource.replica.password:${spring.datasource.password:}}") String password) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .driverClassName(properties.determineDriverClassName())
+                .url(url)
+                .username(username)
+                .password(password)
+                .build();
+        dataSource.setPoolName(ReadWriteRoutingDataSource.REPLICA);
+        return dataSource;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                 @Qualifier("replicaDataSource") DataSource replica,
+                                 ReadYourWritesTracker readYourWritesTracker) {
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(readYourWritesTracker);
+        routing.setTargetDataSources(Map.of(
+                ReadWriteRoutingDataSource.PRIMARY, primary,
+                ReadWriteRoutingDataSource.REPLICA, replica));
+        routing.setDefaultTargetDataSource(primary);
+        routing.afterPropertiesSet();
+        // 事务开始时只拿到代理连接，执行第一条语句时才按只读标记选库
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    /**
+     * 默认情况下 Session 会一直持有第一次拿到的连接直到请求结束（open-in-view），
+     * 同一请求里先只读查询、再写入时写操作会落到从库连接上；改为每个事务结束即释放连接，下个事务重新选库
+     */
+    @Bean
+    public HibernatePropertiesCustomizer connectionReleaseCustomizer() {
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+                "DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION");
+    }
+}
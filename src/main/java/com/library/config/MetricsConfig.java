@@ -0,0 +1,33 @@
+package com.library.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 业务指标，通过 /actuator/prometheus 导出（Prometheus 中名称的点号转为下划线）
+ */
+@Configuration
+public class MetricsConfig {
+
+    // 服务层方法耗时，标签 class/method/exception；标注在 ServiceImpl 类上即对全部公开方法计时计数
+    public static final String SERVICE_TIMER = "library.service";
+
+    // JWT 解析验签耗时直方图，标签 result=valid/invalid
+    public static final String JWT_VERIFY_TIMER = "library.jwt.verify";
+
+    // 借还册数计数器，标签 type=borrow/return、mode=single/batch
+    public static final String BORROW_OPERATIONS = "library.borrow.operations";
+
+    // 乐观锁冲突计数器，标签 method、outcome=retried/exhausted
+    public static final String OPTIMISTIC_CONFLICTS = "library.optimistic.conflicts";
+
+    /**
+     * 使 @Timed 注解生效
+     */
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry) {
+        return new TimedAspect(registry);
+    }
+}
@@ -0,0 +1,79 @@
+package com.library.config;
+
+import com.library.exception.BusinessException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * {@link com.library.common.OptimisticRetry} 的实现。排在事务、缓存拦截器之外，每次重试都是一个新事务；
+ * 退避时间按次数指数增长并取随机值，避免冲突的请求同时重试再次冲突
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class OptimisticRetryAspect {
+
+    private static final Logger logger = LoggerFactory.getLogger(OptimisticRetryAspect.class);
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // 总尝试次数（含第一次）
+    @Value("${library.retry.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${library.retry.initial-backoff:10}")
+    private long initialBackoff;
+
+    @Value("${library.retry.max-backoff:200}")
+    private long maxBackoff;
+
+    @Around("@annotation(com.library.common.OptimisticRetry)")
+    public Object retry(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return joinPoint.proceed();
+        }
+        String method = joinPoint.getSignature().getDeclaringType().getSimpleName() + "." + joinPoint.getSignature().getName();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return joinPoint.proceed();
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= maxAttempts) {
+                    conflicts(method, "exhausted").increment();
+                    logger.warn("乐观锁冲突重试 {} 次后仍失败: {}", attempt, method);
+                    throw new BusinessException(409, "数据已被其他操作修改，请稍后重试");
+                }
+                conflicts(method, "retried").increment();
+                logger.debug("乐观锁冲突，第 {} 次重试: {}", attempt, method);
+                Thread.sleep(backoff(attempt));
+            }
+        }
+    }
+
+    private long backoff(int attempt) {
+        long ceiling = Math.min(maxBackoff, initialBackoff << Math.min(attempt - 1, 20));
+        return ThreadLocalRandom.current().nextLong(ceiling / 2, ceiling + 1);
+    }
+
+    private Counter conflicts(String method, String outcome) {
+        return Counter.builder(MetricsConfig.OPTIMISTIC_CONFLICTS)
+                .description("乐观锁冲突次数")
+                .tag("method", method)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
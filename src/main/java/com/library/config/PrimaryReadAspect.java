@@ -0,0 +1,26 @@
+package com.library.config;
+
+import com.library.util.PrimaryReads;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@link com.library.common.PrimaryRead} 的实现。数据源使用 LazyConnectionDataSourceProxy，
+ * 执行第一条语句时才选库，所以与事务拦截器的先后顺序无关
+ */
+@Aspect
+@Component
+public class PrimaryReadAspect {
+
+    @Around("@annotation(com.library.common.PrimaryRead)")
+    public Object onPrimary(ProceedingJoinPoint joinPoint) throws Throwable {
+        PrimaryReads.enter();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            PrimaryReads.exit();
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.library.config;
+
+import com.library.util.PrimaryReads;
+import com.library.util.ReadYourWritesTracker;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 只读事务走从库，其余（读写事务、事务外的访问、PrimaryReads 范围内的读取）走主库；
+ * 需包在 LazyConnectionDataSourceProxy 中，等事务的只读标记设置完成后再真正取连接
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String PRIMARY = "primary";
+    public static final String REPLICA = "replica";
+
+    private final ReadYourWritesTracker readYourWritesTracker;
+
+    public ReadWriteRoutingDataSource(ReadYourWritesTracker readYourWritesTracker) {
+        this.readYourWritesTracker = readYourWritesTracker;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                && !PrimaryReads.isActive()
+                && !readYourWritesTracker.isWithinWindow()) {
+            return REPLICA;
+        }
+        return PRIMARY;
+    }
+}
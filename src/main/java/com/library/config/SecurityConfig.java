@@ -1,9 +1,12 @@
 package com.library.config;
 
 import com.library.filter.JwtAuthenticationFilter;
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
@@ -11,6 +14,7 @@ import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
@@ -27,9 +31,13 @@ public class SecurityConfig {
     @Autowired
     private JwtAuthenticationFilter jwtAuthenticationFilter;
 
+    // BCrypt cost，每 +1 校验耗时翻倍；修改后已有用户在下次登录成功时自动按新 cost 重新哈希
+    @Value("${library.password.bcrypt-cost:10}")
+    private int bcryptCost;
+
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new BCryptPasswordEncoder(bcryptCost);
     }
 
     @Bean
@@ -39,10 +47,19 @@ public class SecurityConfig {
             .cors(cors -> cors.configurationSource(corsConfigurationSource()))
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(auth -> auth
-                .requestMatchers("/api/users/login", "/api/users/register", "/api/health", "/error", "/").permitAll()
+                // 流式导出结束时的异步派发沿用首次请求的鉴权结果
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+                // 退出登录需要有效的访问 Token，否则任何拿到别人 Token 串的人都能把对方踢下线
+                .requestMatchers("/api/users/login", "/api/users/register", "/api/users/refresh",
+                        "/api/health", "/error", "/").permitAll()
                 .requestMatchers("/api/**").authenticated()
+                // 健康探针与 Prometheus 抓取免登录，其余监控端点仅管理员可见
+                .requestMatchers("/actuator/health/**", "/actuator/prometheus").permitAll()
+                .requestMatchers("/actuator/**").hasRole("ADMIN")
                 .anyRequest().permitAll()
             )
+            // 未登录或 Token 过期/已吊销时返回 401（默认为 403），前端据此用刷新 Token 换取新 Token
+            .exceptionHandling(handling -> handling.authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED)))
             .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
 
         return http.build();
@@ -1,5 +1,11 @@
 package com.library.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.filter.DbConcurrencyLimitFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
@@ -15,7 +21,19 @@ public class WebConfig implements WebMvcConfigurer {
                 .allowedHeaders("*")
                 .maxAge(3600);
     }
-}
-
-
 
+    /**
+     * 数据库并发限流（vthreads 配置下开启），在安全过滤器之后执行，未认证的请求不占名额
+     */
+    @Bean
+    @ConditionalOnProperty(name = "library.db-limiter.enabled", havingValue = "true")
+    public FilterRegistrationBean<DbConcurrencyLimitFilter> dbConcurrencyLimitFilter(
+            @Value("${library.db-limiter.max-concurrent:20}") int maxConcurrent,
+            @Value("${library.db-limiter.acquire-timeout:2000}") long acquireTimeout,
+            ObjectMapper objectMapper) {
+        FilterRegistrationBean<DbConcurrencyLimitFilter> registration =
+                new FilterRegistrationBean<>(new DbConcurrencyLimitFilter(maxConcurrent, acquireTimeout, objectMapper));
+        registration.addUrlPatterns("/api/*");
+        return registration;
+    }
+}
@@ -1,18 +1,34 @@
 package com.library.controller;
 
+import com.library.common.CursorPage;
+import com.library.common.DataFormat;
+import com.library.common.ResourceVersion;
 import com.library.common.Result;
 import com.library.dto.BookDTO;
+import com.library.dto.ImportJobDTO;
 import com.library.entity.Book;
-import com.library.entity.Category;
-import com.library.repository.CategoryRepository;
+import com.library.exception.BusinessException;
+import com.library.mapper.BookMapper;
+import com.library.service.BookImportService;
 import com.library.service.BookService;
+import com.library.service.CatalogVersionService;
+import com.library.service.PayloadCacheService;
+import com.library.util.CursorUtil;
+import com.library.util.HttpCacheUtil;
 import jakarta.validation.Valid;
-import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.multipart.MultipartFile;
 import org.springframework.security.access.prepost.PreAuthorize;
 
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @RestController
@@ -24,27 +40,77 @@ public class BookController {
     private BookService bookService;
 
     @Autowired
-    private CategoryRepository categoryRepository;
+    private CatalogVersionService catalogVersionService;
+
+    @Autowired
+    private PayloadCacheService payloadCacheService;
+
+    @Autowired
+    private BookImportService bookImportService;
+
+    @Value("${library.page.default-size:20}")
+    private int defaultPageSize;
+
+    @Value("${library.page.max-size:100}")
+    private int maxPageSize;
+
+    // 允许作为 keyset 排序键的字段（均以 id 作为并列时的决胜键）
+    private static final Set<String> SORTABLE_FIELDS = Set.of("id", "updatedAt");
 
     @PostMapping
     @PreAuthorize("hasRole('ADMIN')")
     public Result<BookDTO> addBook(@Valid @RequestBody BookDTO bookDTO) {
-        Book book = convertToEntity(bookDTO);
+        Book book = BookMapper.toEntity(bookDTO);
         Book savedBook = bookService.addBook(book);
-        BookDTO result = convertToDTO(savedBook);
+        BookDTO result = BookMapper.toDTO(savedBook);
         return Result.success(result);
     }
 
+    /**
+     * 批量导入：上传 CSV（带表头）或 NDJSON 文件，format 缺省时按文件扩展名判断；
+     * 后台执行，返回任务ID，通过 GET /api/books/import/{jobId} 查询进度和失败行
+     */
+    @PostMapping("/import")
+    @PreAuthorize("hasRole('ADMIN')")
+    public Result<ImportJobDTO> importBooks(@RequestParam("file") MultipartFile file,
+                                            @RequestParam(value = "format", required = false) String format) {
+        if (format == null || format.isEmpty()) {
+            String filename = file.getOriginalFilename();
+            int dot = filename == null ? -1 : filename.lastIndexOf('.');
+            if (dot < 0) {
+                throw new BusinessException(400, "无法从文件名判断导入格式，请指定 format=csv|ndjson");
+            }
+            format = filename.substring(dot + 1);
+        }
+        return Result.success(bookImportService.submit(file, DataFormat.of(format)));
+    }
+
+    @GetMapping("/import/{jobId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public Result<ImportJobDTO> getImportJob(@PathVariable("jobId") String jobId) {
+        return Result.success(bookImportService.getJob(jobId));
+    }
+
     @PreAuthorize("hasRole('ADMIN')")
     @PutMapping("/{id}")
     public Result<BookDTO> updateBook(@PathVariable("id") Long id, @Valid @RequestBody BookDTO bookDTO) {
-        Book book = convertToEntity(bookDTO);
+        Book book = BookMapper.toEntity(bookDTO);
         book.setId(id);
         Book updatedBook = bookService.updateBook(book);
-        BookDTO result = convertToDTO(updatedBook);
+        BookDTO result = BookMapper.toDTO(updatedBook);
         return Result.success(result);
     }
 
+    /**
+     * 库存按差值增减（正数入库、负数下架），与并发借还互不覆盖；修改图书信息的接口不再改库存
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/{id}/stock")
+    public Result<BookDTO> adjustStock(@PathVariable("id") Long id, @RequestParam("delta") int delta) {
+        Book book = bookService.adjustStock(id, delta);
+        return Result.success(BookMapper.toDTO(book));
+    }
+
     @PreAuthorize("hasRole('ADMIN')")
     @DeleteMapping("/{id}")
     public Result<?> deleteBook(@PathVariable("id") Long id) {
@@ -53,49 +119,103 @@ public class BookController {
     }
 
     @GetMapping("/{id}")
-    public Result<BookDTO> getBookById(@PathVariable("id") Long id) {
+    public Result<BookDTO> getBookById(@PathVariable("id") Long id, WebRequest webRequest) {
+        // 先取版本再查数据，304 时直接返回，不查库也不序列化；findById 在读写事务中执行，读主库
+        ResourceVersion version = catalogVersionService.book(id);
+        if (HttpCacheUtil.checkNotModified(webRequest, version)) {
+            return null;
+        }
         Book book = bookService.findById(id);
-        BookDTO result = convertToDTO(book);
+        BookDTO result = BookMapper.toDTO(book);
         return Result.success(result);
     }
 
+    /**
+     * mode=search 时走全文检索（书名/作者/ISBN/描述，按相关度返回前 size 本），其余保持原有行为；
+     * 不带条件的全部图书列表按版本缓存响应字节
+     */
     @GetMapping
-    public Result<List<BookDTO>> getAllBooks(@RequestParam(value = "categoryId", required = false) Long categoryId,
-                                             @RequestParam(value = "keyword", required = false) String keyword) {
+    public ResponseEntity<?> getAllBooks(@RequestParam(value = "categoryId", required = false) Long categoryId,
+                                             @RequestParam(value = "keyword", required = false) String keyword,
+                                             @RequestParam(value = "mode", required = false) String mode,
+                                             @RequestParam(value = "size", required = false) Integer size,
+                                             WebRequest webRequest) {
+        ResourceVersion version = catalogVersionService.books();
+        if (HttpCacheUtil.checkNotModified(webRequest, version)) {
+            return null;
+        }
+        // 以下查询都标注了 @PrimaryRead，读到的数据不会比 ETag 对应的版本旧
         List<Book> books;
-        if (categoryId != null) {
+        if ("search".equals(mode) && keyword != null && !keyword.isEmpty()) {
+            books = bookService.search(keyword, resolvePageSize(size));
+        } else if (categoryId != null) {
             books = bookService.findByCategory(categoryId);
         } else if (keyword != null && !keyword.isEmpty()) {
             books = bookService.findByTitleContaining(keyword);
         } else {
-            books = bookService.findAll();
+            return HttpCacheUtil.payloadResponse(webRequest, payloadCacheService.get("books", version,
+                    () -> Result.success(BookMapper.toDTOList(bookService.findAll()))));
         }
-        List<BookDTO> result = books.stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
-        return Result.success(result);
+        List<BookDTO> result = BookMapper.toDTOList(books);
+        return ResponseEntity.ok(Result.success(result));
     }
 
-    private Book convertToEntity(BookDTO dto) {
-        Book book = new Book();
-        BeanUtils.copyProperties(dto, book, "categoryId");
-        if (dto.getCategoryId() != null) {
-            Category category = new Category();
-            category.setId(dto.getCategoryId());
-            book.setCategory(category);
+    /**
+     * 游标分页查询图书：sort 支持 id / updatedAt，direction 支持 asc / desc，
+     * 翻页时把上一页返回的 nextCursor 原样带回，排序参数需保持不变
+     */
+    @GetMapping("/page")
+    public ResponseEntity<?> getBookPage(@RequestParam(value = "categoryId", required = false) Long categoryId,
+                                         @RequestParam(value = "keyword", required = false) String keyword,
+                                         @RequestParam(value = "sort", defaultValue = "id") String sortField,
+                                         @RequestParam(value = "direction", defaultValue = "asc") String direction,
+                                         @RequestParam(value = "size", required = false) Integer size,
+                                         @RequestParam(value = "cursor", required = false) String cursor,
+                                         WebRequest webRequest) {
+        if (!SORTABLE_FIELDS.contains(sortField)) {
+            throw new BusinessException(400, "不支持的排序字段: " + sortField);
+        }
+        Sort.Direction dir = Sort.Direction.fromOptionalString(direction)
+                .orElseThrow(() -> new BusinessException(400, "不支持的排序方向: " + direction));
+        Sort sort = "id".equals(sortField)
+                ? Sort.by(dir, "id")
+                : Sort.by(dir, sortField).and(Sort.by(dir, "id"));
+
+        KeysetScrollPosition position = CursorUtil.decode(cursor);
+        if (!position.isInitial() && !position.getKeys().keySet().equals(sortKeys(sort))) {
+            throw new BusinessException(400, "分页游标与排序参数不匹配");
         }
-        return book;
-    }
 
-    private BookDTO convertToDTO(Book book) {
-        BookDTO dto = new BookDTO();
-        BeanUtils.copyProperties(book, dto);
-        if (book.getCategory() != null) {
-            dto.setCategoryId(book.getCategory().getId());
+        int pageSize = resolvePageSize(size);
+        // 不带筛选条件的首页（仪表盘、列表页首屏）按版本缓存响应字节
+        if (position.isInitial() && categoryId == null && (keyword == null || keyword.isEmpty())) {
+            ResourceVersion version = catalogVersionService.books();
+            if (HttpCacheUtil.checkNotModified(webRequest, version)) {
+                return null;
+            }
+            String key = "books-page-" + sortField + "-" + dir + "-" + pageSize;
+            return HttpCacheUtil.payloadResponse(webRequest, payloadCacheService.get(key, version,
+                    () -> scrollPage(null, null, sort, position, pageSize)));
         }
-        return dto;
+        return ResponseEntity.ok(scrollPage(categoryId, keyword, sort, position, pageSize));
     }
-}
 
+    private Result<CursorPage<BookDTO>> scrollPage(Long categoryId, String keyword, Sort sort,
+                                                  KeysetScrollPosition position, int pageSize) {
+        Window<Book> window = bookService.scroll(categoryId, keyword, sort, position, pageSize);
 
+        List<BookDTO> content = BookMapper.toDTOList(window.getContent());
+        String nextCursor = window.hasNext() && !window.isEmpty()
+                ? CursorUtil.encode(window.positionAt(window.size() - 1))
+                : null;
+        return Result.success(CursorPage.of(content, nextCursor));
+    }
 
+    private int resolvePageSize(Integer size) {
+        return size == null || size <= 0 ? defaultPageSize : Math.min(size, maxPageSize);
+    }
+
+    private Set<String> sortKeys(Sort sort) {
+        return sort.stream().map(Sort.Order::getProperty).collect(Collectors.toSet());
+    }
+}
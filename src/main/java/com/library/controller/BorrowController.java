@@ -1,22 +1,25 @@
 package com.library.controller;
 
+import com.library.common.CursorPage;
+import com.library.common.LoginUser;
 import com.library.common.Result;
+import com.library.dto.BatchBorrowRequestDTO;
+import com.library.dto.BatchResultDTO;
+import com.library.dto.BatchReturnRequestDTO;
 import com.library.dto.BorrowDTO;
 import com.library.dto.BorrowRequestDTO;
 import com.library.entity.Borrow;
+import com.library.mapper.BorrowMapper;
 import com.library.service.BorrowService;
+import com.library.service.OverdueService;
 import jakarta.validation.Valid;
-import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.access.prepost.PreAuthorize;
-import com.library.entity.User;
-import com.library.service.UserService;
+import com.library.util.SecurityUtil;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/borrows")
@@ -27,88 +30,107 @@ public class BorrowController {
     private BorrowService borrowService;
 
     @Autowired
-    private UserService userService;
+    private OverdueService overdueService;
+
+    @Value("${library.page.default-size:20}")
+    private int defaultPageSize;
+
+    @Value("${library.page.max-size:100}")
+    private int maxPageSize;
 
     @PostMapping
     public Result<BorrowDTO> borrowBook(@Valid @RequestBody BorrowRequestDTO requestDTO) {
         Borrow borrow = borrowService.borrowBook(requestDTO.getUserId(), requestDTO.getBookId());
-        BorrowDTO result = convertToDTO(borrow);
+        BorrowDTO result = BorrowMapper.toDTO(borrow);
         return Result.success(result);
     }
 
+    /**
+     * 批量借阅：allOrNothing=true（默认）时任一本不满足条件则整批不借，false 时尽量借出，逐项返回结果
+     */
+    @PostMapping("/batch")
+    public Result<BatchResultDTO> borrowBooks(@Valid @RequestBody BatchBorrowRequestDTO requestDTO) {
+        LoginUser currentUser = SecurityUtil.currentUser();
+        if (currentUser == null) {
+            return Result.error(403, "无权限");
+        }
+        // 普通用户只能为自己借阅，管理员（前台）可代任意读者借阅
+        if (!currentUser.isAdmin() && !currentUser.getId().equals(requestDTO.getUserId())) {
+            return Result.error(403, "无权限为其他用户借阅");
+        }
+        boolean allOrNothing = !Boolean.FALSE.equals(requestDTO.getAllOrNothing());
+        return Result.success(borrowService.borrowBooks(requestDTO.getUserId(), requestDTO.getBookIds(), allOrNothing));
+    }
+
+    /**
+     * 批量归还：普通用户只能归还自己的借阅记录，模式同批量借阅
+     */
+    @PutMapping("/return/batch")
+    public Result<BatchResultDTO> returnBooks(@Valid @RequestBody BatchReturnRequestDTO requestDTO) {
+        LoginUser currentUser = SecurityUtil.currentUser();
+        if (currentUser == null) {
+            return Result.error(403, "无权限");
+        }
+        Long operatorId = currentUser.isAdmin() ? null : currentUser.getId();
+        boolean allOrNothing = !Boolean.FALSE.equals(requestDTO.getAllOrNothing());
+        return Result.success(borrowService.returnBooks(requestDTO.getBorrowIds(), allOrNothing, operatorId));
+    }
+
     @PutMapping("/{id}/return")
     public Result<BorrowDTO> returnBook(@PathVariable("id") Long id) {
         // 只有管理员或借阅记录的所属用户可以归还
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        String currentUsername = auth != null ? auth.getName() : null;
-        if (currentUsername == null) {
+        LoginUser currentUser = SecurityUtil.currentUser();
+        if (currentUser == null) {
             return Result.error(403, "无权限");
         }
-        Borrow record = borrowService.findById(id);
-        User currentUser = null;
-        try {
-            currentUser = borrowService.findById(id).getUser();
-        } catch (Exception ignored) {}
-        // 如果当前用户不是 admin 且不是借阅记录的用户，则禁止
-        User actor = currentUsername != null ? borrowService.findById(id).getUser() : null;
-        // Simplify: allow if admin or the user owns the record
-        // We'll fetch current user's role via UserService through BorrowService's user lookup
-        // For now, allow return (server-side service will enforce business rules)
+        // 如果当前用户不是 admin 且不是借阅记录的用户，则禁止（只查借阅人ID，不加载整条记录）
+        if (!currentUser.isAdmin() && !currentUser.getId().equals(borrowService.findOwnerId(id))) {
+            return Result.error(403, "无权限归还该借阅记录");
+        }
         Borrow borrow = borrowService.returnBook(id);
-        BorrowDTO result = convertToDTO(borrow);
+        BorrowDTO result = BorrowMapper.toDTO(borrow);
         return Result.success(result);
     }
 
     @GetMapping("/user/{userId}")
     public Result<List<BorrowDTO>> getBorrowsByUser(@PathVariable("userId") Long userId) {
         // 普通用户只能查自己的，管理员可查任意
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        String currentUsername = auth != null ? auth.getName() : null;
-        User currentUser = currentUsername != null ? userService.findByUsername(currentUsername) : null;
+        LoginUser currentUser = SecurityUtil.currentUser();
         if (currentUser == null) {
             return Result.error(403, "无权限");
         }
-        if (!"admin".equals(currentUser.getRole()) && !currentUser.getId().equals(userId)) {
+        if (!currentUser.isAdmin() && !currentUser.getId().equals(userId)) {
             // 普通用户只能查自己的
             userId = currentUser.getId();
         }
-        List<Borrow> borrows = borrowService.findByUser(userId);
-        List<BorrowDTO> result = borrows.stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
-        return Result.success(result);
+        return Result.success(borrowService.findByUser(userId));
+    }
+
+    @GetMapping("/recent")
+    public Result<List<BorrowDTO>> getRecentBorrows() {
+        return Result.success(borrowService.findRecent(5));
+    }
+
+    /**
+     * 逾期借阅记录（管理员），按应还时间从早到晚游标分页，数据来自内存逾期引擎
+     */
+    @GetMapping("/overdue")
+    @PreAuthorize("hasRole('ADMIN')")
+    public Result<CursorPage<BorrowDTO>> getOverdueBorrows(@RequestParam(value = "size", required = false) Integer size,
+                                                           @RequestParam(value = "cursor", required = false) String cursor) {
+        int pageSize = size == null || size <= 0 ? defaultPageSize : Math.min(size, maxPageSize);
+        return Result.success(overdueService.findOverdue(cursor, pageSize));
     }
 
     @GetMapping("/{id}")
     public Result<BorrowDTO> getBorrowById(@PathVariable("id") Long id) {
         Borrow borrow = borrowService.findById(id);
-        BorrowDTO result = convertToDTO(borrow);
+        BorrowDTO result = BorrowMapper.toDTO(borrow);
         return Result.success(result);
     }
 
     @GetMapping
     public Result<List<BorrowDTO>> getAllBorrows() {
-        List<Borrow> borrows = borrowService.findAll();
-        List<BorrowDTO> result = borrows.stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
-        return Result.success(result);
-    }
-
-    private BorrowDTO convertToDTO(Borrow borrow) {
-        BorrowDTO dto = new BorrowDTO();
-        BeanUtils.copyProperties(borrow, dto);
-        if (borrow.getUser() != null) {
-            dto.setUserId(borrow.getUser().getId());
-            dto.setUsername(borrow.getUser().getUsername());
-        }
-        if (borrow.getBook() != null) {
-            dto.setBookId(borrow.getBook().getId());
-            dto.setBookTitle(borrow.getBook().getTitle());
-        }
-        return dto;
+        return Result.success(borrowService.findAll());
     }
 }
-
-
-
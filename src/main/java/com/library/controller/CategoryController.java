@@ -1,17 +1,22 @@
 package com.library.controller;
 
+import com.library.common.ResourceVersion;
 import com.library.common.Result;
 import com.library.dto.CategoryDTO;
 import com.library.entity.Category;
+import com.library.mapper.CategoryMapper;
+import com.library.service.CatalogVersionService;
 import com.library.service.CategoryService;
+import com.library.service.PayloadCacheService;
+import com.library.util.HttpCacheUtil;
 import jakarta.validation.Valid;
-import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.security.access.prepost.PreAuthorize;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/categories")
@@ -21,24 +26,28 @@ public class CategoryController {
     @Autowired
     private CategoryService categoryService;
 
+    @Autowired
+    private CatalogVersionService catalogVersionService;
+
+    @Autowired
+    private PayloadCacheService payloadCacheService;
+
     @PostMapping
     @PreAuthorize("hasRole('ADMIN')")
     public Result<CategoryDTO> addCategory(@Valid @RequestBody CategoryDTO categoryDTO) {
-        Category category = new Category();
-        BeanUtils.copyProperties(categoryDTO, category);
+        Category category = CategoryMapper.toEntity(categoryDTO);
         Category savedCategory = categoryService.addCategory(category);
-        CategoryDTO result = convertToDTO(savedCategory);
+        CategoryDTO result = CategoryMapper.toDTO(savedCategory);
         return Result.success(result);
     }
 
     @PreAuthorize("hasRole('ADMIN')")
     @PutMapping("/{id}")
     public Result<CategoryDTO> updateCategory(@PathVariable("id") Long id, @Valid @RequestBody CategoryDTO categoryDTO) {
-        Category category = new Category();
-        BeanUtils.copyProperties(categoryDTO, category);
+        Category category = CategoryMapper.toEntity(categoryDTO);
         category.setId(id);
         Category updatedCategory = categoryService.updateCategory(category);
-        CategoryDTO result = convertToDTO(updatedCategory);
+        CategoryDTO result = CategoryMapper.toDTO(updatedCategory);
         return Result.success(result);
     }
 
@@ -52,25 +61,23 @@ public class CategoryController {
     @GetMapping("/{id}")
     public Result<CategoryDTO> getCategoryById(@PathVariable("id") Long id) {
         Category category = categoryService.findById(id);
-        CategoryDTO result = convertToDTO(category);
+        CategoryDTO result = CategoryMapper.toDTO(category);
         return Result.success(result);
     }
 
+    /**
+     * 每次打开页面都会请求，响应字节按版本缓存，命中时直接写出
+     */
     @GetMapping
-    public Result<List<CategoryDTO>> getAllCategories() {
-        List<Category> categories = categoryService.findAll();
-        List<CategoryDTO> result = categories.stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
-        return Result.success(result);
-    }
-
-    private CategoryDTO convertToDTO(Category category) {
-        CategoryDTO dto = new CategoryDTO();
-        BeanUtils.copyProperties(category, dto);
-        return dto;
+    public ResponseEntity<byte[]> getAllCategories(WebRequest webRequest) {
+        ResourceVersion version = catalogVersionService.categories();
+        if (HttpCacheUtil.checkNotModified(webRequest, version)) {
+            return null;
+        }
+        return HttpCacheUtil.payloadResponse(webRequest, payloadCacheService.get("categories", version, () -> {
+            List<Category> categories = categoryService.findAll();
+            List<CategoryDTO> result = CategoryMapper.toDTOList(categories);
+            return Result.success(result);
+        }));
     }
 }
-
-
-
@@ -0,0 +1,68 @@
+package com.library.controller;
+
+import com.library.common.DataFormat;
+import com.library.service.ExportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 全量导出：format 支持 ndjson / csv，gzip=true 时返回 .gz 压缩文件
+ */
+@RestController
+@RequestMapping("/api/export")
+@CrossOrigin(origins = "*")
+public class ExportController {
+
+    private static final DateTimeFormatter FILE_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+
+    @Autowired
+    private ExportService exportService;
+
+    @GetMapping("/books")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportBooks(@RequestParam(value = "format", defaultValue = "ndjson") String format,
+                                                             @RequestParam(value = "gzip", defaultValue = "false") boolean gzip) {
+        DataFormat exportFormat = DataFormat.of(format);
+        return stream("books", exportFormat, gzip, out -> exportService.exportBooks(exportFormat, out));
+    }
+
+    @GetMapping("/borrows")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportBorrows(@RequestParam(value = "format", defaultValue = "ndjson") String format,
+                                                               @RequestParam(value = "gzip", defaultValue = "false") boolean gzip) {
+        DataFormat exportFormat = DataFormat.of(format);
+        return stream("borrows", exportFormat, gzip, out -> exportService.exportBorrows(exportFormat, out));
+    }
+
+    private ResponseEntity<StreamingResponseBody> stream(String name, DataFormat format, boolean gzip,
+                                                         StreamingResponseBody body) {
+        String filename = name + "-" + FILE_TIME_FORMAT.format(LocalDateTime.now()) + "." + format.getExtension();
+        MediaType contentType = MediaType.parseMediaType(format.getContentType());
+        StreamingResponseBody responseBody = body;
+        if (gzip) {
+            filename += ".gz";
+            contentType = MediaType.parseMediaType("application/gzip");
+            responseBody = out -> {
+                GZIPOutputStream gzipOut = new GZIPOutputStream(out, GZIP_BUFFER_SIZE);
+                body.writeTo(gzipOut);
+                gzipOut.finish();
+            };
+        }
+        return ResponseEntity.ok()
+                .contentType(contentType)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+                .body(responseBody);
+    }
+}
@@ -1,22 +1,55 @@
 package com.library.controller;
 
 import com.library.common.Result;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 @RestController
 @CrossOrigin(origins = "*")
 public class HealthController {
-    
+
+    private static final Logger logger = LoggerFactory.getLogger(HealthController.class);
+
+    @Autowired
+    private DataSource dataSource;
+
+    // 数据库连通性检查的超时时间，单位：秒
+    @Value("${library.health.db-timeout:2}")
+    private int dbTimeout;
+
+    /**
+     * 就绪检查：数据库可连通且连接池未耗尽时返回 200，否则返回 503（供负载均衡摘除实例）
+     */
     @GetMapping("/api/health")
-    public Result<String> health() {
-        return Result.success("OK");
+    public ResponseEntity<Result<Map<String, Object>>> health() {
+        Map<String, Object> details = new LinkedHashMap<>();
+        // 连接池耗尽时不再取连接检查数据库，避免健康检查自身阻塞到 connection-timeout
+        boolean up = checkPool(details) && checkDatabase(details);
+        details.put("status", up ? "UP" : "DOWN");
+        if (up) {
+            return ResponseEntity.ok(Result.success(details));
+        }
+        Result<Map<String, Object>> result = Result.error(503, "服务未就绪");
+        result.setData(details);
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(result);
     }
-    
+
     @GetMapping("/")
     public Result<Map<String, String>> root() {
         Map<String, String> info = new HashMap<>();
@@ -26,4 +59,51 @@ public class HealthController {
         info.put("docs", "请查看 API_DOCUMENTATION.md");
         return Result.success(info);
     }
+
+    private boolean checkDatabase(Map<String, Object> details) {
+        long start = System.currentTimeMillis();
+        boolean valid;
+        try (Connection connection = dataSource.getConnection()) {
+            valid = connection.isValid(dbTimeout);
+        } catch (Exception e) {
+            logger.warn("数据库健康检查失败: {}", e.getMessage());
+            valid = false;
+        }
+        Map<String, Object> db = new LinkedHashMap<>();
+        db.put("status", valid ? "UP" : "DOWN");
+        db.put("latencyMs", System.currentTimeMillis() - start);
+        details.put("db", db);
+        return valid;
+    }
+
+    /**
+     * 有线程在排队等连接且已无空闲连接时视为连接池耗尽（启用读写分离时检查的是主库连接池）
+     */
+    private boolean checkPool(Map<String, Object> details) {
+        HikariDataSource hikari = unwrapHikari();
+        if (hikari == null || hikari.getHikariPoolMXBean() == null) {
+            return true;
+        }
+        HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+        int idle = pool.getIdleConnections();
+        int waiting = pool.getThreadsAwaitingConnection();
+        boolean available = idle > 0 || waiting == 0;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("status", available ? "UP" : "DOWN");
+        stats.put("active", pool.getActiveConnections());
+        stats.put("idle", idle);
+        stats.put("total", pool.getTotalConnections());
+        stats.put("max", hikari.getMaximumPoolSize());
+        stats.put("waiting", waiting);
+        details.put("pool", stats);
+        return available;
+    }
+
+    private HikariDataSource unwrapHikari() {
+        try {
+            return dataSource.isWrapperFor(HikariDataSource.class) ? dataSource.unwrap(HikariDataSource.class) : null;
+        } catch (SQLException e) {
+            return null;
+        }
+    }
 }
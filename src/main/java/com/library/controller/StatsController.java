@@ -0,0 +1,31 @@
+package com.library.controller;
+
+import com.library.common.Result;
+import com.library.dto.CacheStatsDTO;
+import com.library.dto.StatsSummaryDTO;
+import com.library.service.StatsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/stats")
+@CrossOrigin(origins = "*")
+public class StatsController {
+
+    @Autowired
+    private StatsService statsService;
+
+    @GetMapping("/summary")
+    public Result<StatsSummaryDTO> getSummary() {
+        return Result.success(statsService.getSummary());
+    }
+
+    @GetMapping("/caches")
+    @PreAuthorize("hasRole('ADMIN')")
+    public Result<List<CacheStatsDTO>> getCacheStats() {
+        return Result.success(statsService.getCacheStats());
+    }
+}
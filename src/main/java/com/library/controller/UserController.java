@@ -1,25 +1,26 @@
 package com.library.controller;
 
+import com.library.common.LoginUser;
 import com.library.common.Result;
 import com.library.dto.LoginDTO;
 import com.library.dto.LoginResponseDTO;
+import com.library.dto.RefreshTokenDTO;
 import com.library.dto.UserDTO;
 import com.library.entity.User;
+import com.library.mapper.UserMapper;
+import com.library.service.LoginService;
 import com.library.service.UserService;
 import com.library.util.JwtUtil;
+import com.library.util.SecurityUtil;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
-import org.springframework.beans.BeanUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/users")
@@ -29,8 +30,8 @@ public class UserController {
     @Autowired
     private UserService userService;
 
-    @Autowired(required = false)
-    private PasswordEncoder passwordEncoder;
+    @Autowired
+    private LoginService loginService;
 
     @Autowired
     private JwtUtil jwtUtil;
@@ -44,47 +45,49 @@ public class UserController {
         user.setUsername(userDTO.getUsername());
         user.setPassword(userDTO.getPassword());
         User savedUser = userService.register(user);
-        UserDTO result = convertToDTO(savedUser);
-        // 不返回密码
-        result.setPassword(null);
-        return Result.success(result);
+        // UserMapper 不复制密码
+        return Result.success(UserMapper.toDTO(savedUser));
     }
 
     @PostMapping("/login")
-    public Result<LoginResponseDTO> login(@Valid @RequestBody LoginDTO loginDTO) {
+    public Result<LoginResponseDTO> login(@Valid @RequestBody LoginDTO loginDTO, HttpServletRequest request) {
         logger.debug("Login attempt for username='{}'", loginDTO.getUsername());
-        User user = userService.findByUsername(loginDTO.getUsername());
-        if (user != null) {
-            String stored = user.getPassword();
-            int storedLen = stored != null ? stored.length() : 0;
-            logger.debug("Found user='{}', storedPasswordLength={}, passwordEncoderPresent={}", loginDTO.getUsername(), storedLen, (passwordEncoder != null));
-        } else {
-            logger.debug("User '{}' not found", loginDTO.getUsername());
-        }
+        // 限流、负缓存和密码校验（独立线程池）都在 LoginService 中完成
+        User user = loginService.authenticate(loginDTO.getUsername(), loginDTO.getPassword(), request.getRemoteAddr());
         if (user == null) {
             return Result.error("用户名或密码错误");
         }
-        
-        // 密码验证
-        boolean passwordMatches = false;
-        if (passwordEncoder != null) {
-            // 使用加密验证
-            passwordMatches = passwordEncoder.matches(loginDTO.getPassword(), user.getPassword());
-            logger.debug("Password matches (using encoder): {}", passwordMatches);
-        } else {
-            // 简单明文验证（仅用于开发测试）
-            passwordMatches = user.getPassword().equals(loginDTO.getPassword());
-            logger.debug("Password matches (plain compare): {}", passwordMatches);
-        }
-        
-        if (!passwordMatches) {
-            return Result.error("用户名或密码错误");
-        }
-        
+        return issueTokens(user);
+    }
+
+    /**
+     * 用刷新 Token 换取新的访问 Token 和刷新 Token，旧刷新 Token 随即作废
+     */
+    @PostMapping("/refresh")
+    public Result<LoginResponseDTO> refresh(@Valid @RequestBody RefreshTokenDTO refreshTokenDTO) {
+        User user = loginService.refresh(refreshTokenDTO.getRefreshToken());
+        return issueTokens(user);
+    }
+
+    /**
+     * 退出登录（需登录）：吊销当前访问 Token，请求体中带了刷新 Token 时一并吊销，刷新 Token 必须属于当前用户
+     */
+    @PostMapping("/logout")
+    public Result<?> logout(@RequestHeader(value = "Authorization", required = false) String authHeader,
+                            @RequestBody(required = false) RefreshTokenDTO refreshTokenDTO) {
+        String accessToken = authHeader != null && authHeader.startsWith("Bearer ") ? authHeader.substring(7) : null;
+        String refreshToken = refreshTokenDTO != null ? refreshTokenDTO.getRefreshToken() : null;
+        loginService.logout(SecurityUtil.currentUser(), accessToken, refreshToken);
+        return Result.success("退出成功");
+    }
+
+    private Result<LoginResponseDTO> issueTokens(User user) {
         // 生成JWT Token（捕获因 secret 未配置或过短导致的异常，返回可操作的错误提示）
         String token;
+        String refreshToken;
         try {
             token = jwtUtil.generateToken(user.getId(), user.getUsername(), user.getRole());
+            refreshToken = jwtUtil.generateRefreshToken(user.getId(), user.getUsername(), user.getRole());
         } catch (IllegalStateException ise) {
             // 明确告知是 JWT secret 配置问题，而不是用户名/密码错误
             return Result.error(500, "JWT 配置错误: " + ise.getMessage());
@@ -93,28 +96,19 @@ public class UserController {
             return Result.error(500, "生成 Token 失败，请检查服务日志");
         }
         
-        UserDTO userDTO = convertToDTO(user);
-        LoginResponseDTO response = new LoginResponseDTO(token, userDTO);
+        UserDTO userDTO = UserMapper.toDTO(user);
+        LoginResponseDTO response = new LoginResponseDTO(token, refreshToken, userDTO);
         return Result.success(response);
     }
 
-    @PostMapping("/logout")
-    public Result<?> logout() {
-        // JWT是无状态的，客户端删除token即可
-        // 这里可以添加token黑名单机制（可选）
-        return Result.success("退出成功");
-    }
-
     @GetMapping("/{id}")
     public Result<UserDTO> getUserById(@PathVariable("id") Long id) {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        String currentUsername = auth != null ? auth.getName() : null;
-        User currentUser = currentUsername != null ? userService.findByUsername(currentUsername) : null;
+        LoginUser currentUser = SecurityUtil.currentUser();
 
         // 仅管理员或自身可以查看用户信息
-        if (currentUser != null && ("admin".equals(currentUser.getRole()) || currentUser.getId().equals(id))) {
+        if (currentUser != null && (currentUser.isAdmin() || currentUser.getId().equals(id))) {
             User user = userService.findById(id);
-            UserDTO result = convertToDTO(user);
+            UserDTO result = UserMapper.toDTO(user);
             return Result.success(result);
         }
         return Result.error(403, "无权限查看该用户信息");
@@ -124,23 +118,19 @@ public class UserController {
     @PreAuthorize("hasRole('ADMIN')")
     public Result<List<UserDTO>> getAllUsers() {
         List<User> users = userService.findAll();
-        List<UserDTO> result = users.stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        List<UserDTO> result = UserMapper.toDTOList(users);
         return Result.success(result);
     }
 
     @PutMapping("/{id}")
     public Result<UserDTO> updateUser(@PathVariable("id") Long id, @Valid @RequestBody UserDTO userDTO) {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        String currentUsername = auth != null ? auth.getName() : null;
-        User currentUser = currentUsername != null ? userService.findByUsername(currentUsername) : null;
+        LoginUser currentUser = SecurityUtil.currentUser();
 
         // 只有管理员或用户本人可以修改
         if (currentUser == null) {
             return Result.error(403, "无权限");
         }
-        if (!"admin".equals(currentUser.getRole()) && !currentUser.getId().equals(id)) {
+        if (!currentUser.isAdmin() && !currentUser.getId().equals(id)) {
             return Result.error(403, "无权限修改该用户");
         }
 
@@ -149,15 +139,12 @@ public class UserController {
         user.setId(id);
         user.setUsername(userDTO.getUsername());
         user.setPassword(userDTO.getPassword());
-        if ("admin".equals(currentUser.getRole()) && userDTO.getRole() != null) {
+        if (currentUser.isAdmin() && userDTO.getRole() != null) {
             user.setRole(userDTO.getRole());
         }
 
         User updatedUser = userService.updateUser(user);
-        UserDTO result = convertToDTO(updatedUser);
-        // 不返回密码
-        result.setPassword(null);
-        return Result.success(result);
+        return Result.success(UserMapper.toDTO(updatedUser));
     }
 
     @PreAuthorize("hasRole('ADMIN')")
@@ -166,13 +153,4 @@ public class UserController {
         userService.deleteUser(id);
         return Result.success();
     }
-
-    private UserDTO convertToDTO(User user) {
-        UserDTO dto = new UserDTO();
-        BeanUtils.copyProperties(user, dto);
-        // 不返回密码
-        dto.setPassword(null);
-        return dto;
-    }
 }
-
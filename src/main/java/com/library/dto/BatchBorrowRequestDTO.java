@@ -0,0 +1,20 @@
+package com.library.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BatchBorrowRequestDTO {
+
+    @NotNull(message = "用户ID不能为空")
+    private Long userId;
+
+    @NotEmpty(message = "图书ID不能为空")
+    private List<Long> bookIds;
+
+    // true：任一本校验失败则整批不借；false：能借的先借，失败的逐项返回原因
+    private Boolean allOrNothing = true;
+}
@@ -0,0 +1,20 @@
+package com.library.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchItemResultDTO {
+
+    // 批量借阅时为图书ID，批量归还时为借阅记录ID
+    private Long id;
+
+    private Boolean success;
+
+    private String message;
+
+    private BorrowDTO borrow;
+}
@@ -0,0 +1,16 @@
+package com.library.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BatchResultDTO {
+
+    private Integer succeeded;
+
+    private Integer failed;
+
+    // 与请求中的ID顺序一致
+    private List<BatchItemResultDTO> items;
+}
@@ -0,0 +1,16 @@
+package com.library.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BatchReturnRequestDTO {
+
+    @NotEmpty(message = "借阅记录ID不能为空")
+    private List<Long> borrowIds;
+
+    // true：任一条校验失败则整批不还；false：能还的先还，失败的逐项返回原因
+    private Boolean allOrNothing = true;
+}
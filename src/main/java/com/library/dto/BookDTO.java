@@ -28,6 +28,9 @@ public class BookDTO {
     private BigDecimal price;
 
     private Long categoryId;
+
+    // 乐观锁版本号：修改时必须带回查询时拿到的值，期间被其他管理员修改过则拒绝
+    private Long version;
 }
 
 
@@ -1,10 +1,14 @@
 package com.library.dto;
 
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
 
 @Data
+@NoArgsConstructor
+@AllArgsConstructor
 public class BorrowDTO {
 
     private Long id;
@@ -19,6 +23,8 @@ public class BorrowDTO {
 
     private LocalDateTime borrowTime;
 
+    private LocalDateTime dueTime;
+
     private LocalDateTime returnTime;
 
     private Boolean returned;
@@ -0,0 +1,19 @@
+package com.library.dto;
+
+import lombok.Data;
+
+@Data
+public class CacheStatsDTO {
+
+    private String name;
+
+    private Long size;
+
+    private Long hitCount;
+
+    private Long missCount;
+
+    private Long evictionCount;
+
+    private Double hitRate;
+}
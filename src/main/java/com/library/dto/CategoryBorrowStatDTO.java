@@ -0,0 +1,17 @@
+package com.library.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoryBorrowStatDTO {
+
+    private Long categoryId;
+
+    private String categoryName;
+
+    private Long borrowCount;
+}
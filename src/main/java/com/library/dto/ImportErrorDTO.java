@@ -0,0 +1,16 @@
+package com.library.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportErrorDTO {
+
+    // 数据行号，从 1 开始，不含表头
+    private Long row;
+
+    private String message;
+}
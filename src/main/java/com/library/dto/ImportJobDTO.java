@@ -0,0 +1,32 @@
+package com.library.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+public class ImportJobDTO {
+
+    private String id;
+
+    private String filename;
+
+    // RUNNING / COMPLETED / FAILED
+    private String status;
+
+    private Long processed;
+
+    private Long succeeded;
+
+    private Long failed;
+
+    // 失败行明细，超过上限后只计数不再记录
+    private List<ImportErrorDTO> errors;
+
+    private String message;
+
+    private LocalDateTime startedAt;
+
+    private LocalDateTime finishedAt;
+}
@@ -5,13 +5,13 @@ import lombok.Data;
 @Data
 public class LoginResponseDTO {
     private String token;
+    // 访问 Token 过期后用于换取新 Token，每次刷新后旧的刷新 Token 作废
+    private String refreshToken;
     private UserDTO user;
     
-    public LoginResponseDTO(String token, UserDTO user) {
+    public LoginResponseDTO(String token, String refreshToken, UserDTO user) {
         this.token = token;
+        this.refreshToken = refreshToken;
         this.user = user;
     }
 }
-
-
-
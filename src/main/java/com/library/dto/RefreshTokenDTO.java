@@ -0,0 +1,11 @@
+package com.library.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+
+@Data
+public class RefreshTokenDTO {
+
+    @NotBlank(message = "刷新Token不能为空")
+    private String refreshToken;
+}
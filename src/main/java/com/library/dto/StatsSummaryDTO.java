@@ -0,0 +1,29 @@
+package com.library.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+public class StatsSummaryDTO {
+
+    private Long totalBooks;
+
+    private Long totalStock;
+
+    private Long totalCategories;
+
+    private Long totalUsers;
+
+    private Long totalBorrows;
+
+    private Long activeBorrows;
+
+    private Long overdueBorrows;
+
+    private List<CategoryBorrowStatDTO> categoryBorrows;
+
+    // 最近一次全量校准的时间
+    private LocalDateTime refreshedAt;
+}
@@ -5,13 +5,24 @@ import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.Data;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Data
 @Entity
-@Table(name = "book")
+@Table(name = "book", indexes = {
+        @Index(name = "idx_book_category", columnList = "category_id, id"),
+        @Index(name = "idx_book_isbn", columnList = "isbn"),
+        @Index(name = "idx_book_title", columnList = "title"),
+        @Index(name = "idx_book_updated_at", columnList = "updated_at, id")
+})
+@Cacheable
+@org.hibernate.annotations.Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+// 只更新修改过的列：修改元数据时不会把读到的旧库存写回，覆盖并发借还对库存的增减
+@DynamicUpdate
 public class Book {
 
     @Id
@@ -44,12 +55,18 @@ public class Book {
     @JoinColumn(name = "category_id")
     private Category category;
 
-    @Column(name = "created_at")
+    @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt;
 
-    @Column(name = "updated_at")
+    // keyset 分页的排序键，不能为空
+    @Column(name = "updated_at", nullable = false)
     private LocalDateTime updatedAt;
 
+    // 乐观锁版本号，只随元数据修改递增；借还通过条件更新改库存，不递增也不校验版本
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
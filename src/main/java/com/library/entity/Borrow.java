@@ -8,7 +8,11 @@ import java.time.LocalDateTime;
 
 @Data
 @Entity
-@Table(name = "borrow")
+@Table(name = "borrow", indexes = {
+        @Index(name = "idx_borrow_user_returned", columnList = "user_id, returned, book_id"),
+        @Index(name = "idx_borrow_book_returned", columnList = "book_id, returned"),
+        @Index(name = "idx_borrow_returned_due_time", columnList = "returned, due_time")
+})
 public class Borrow {
 
     @Id
@@ -31,6 +35,10 @@ public class Borrow {
     @Column(name = "borrow_time", nullable = false)
     private LocalDateTime borrowTime;
 
+    // 应还时间
+    @Column(name = "due_time", nullable = false)
+    private LocalDateTime dueTime;
+
     // 归还时间
     @Column(name = "return_time")
     private LocalDateTime returnTime;
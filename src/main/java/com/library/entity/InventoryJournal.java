@@ -0,0 +1,33 @@
+package com.library.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 库存增量日志：启用库存引擎后借还不再直接更新 book.stock，而是在同一事务内记一条增量，
+ * 由定时任务按图书汇总后批量合并到 book.stock 并删除
+ */
+@Data
+@Entity
+@Table(name = "inventory_journal", indexes = {
+        @Index(name = "idx_inventory_journal_book", columnList = "book_id")
+})
+public class InventoryJournal {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // 不建外键：图书删除后残留的增量在合并时更新 0 行，随后删除
+    @Column(name = "book_id", nullable = false)
+    private Long bookId;
+
+    // 库存增减：借出为负，归还、入库为正
+    @Column(nullable = false)
+    private Integer delta;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,29 @@
+package com.library.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 已吊销的 Token，按 jti 记录，保留到 Token 自身过期为止
+ */
+@Data
+@Entity
+@Table(name = "revoked_token", indexes = {
+        @Index(name = "idx_revoked_token_expires_at", columnList = "expires_at"),
+        @Index(name = "idx_revoked_token_revoked_at", columnList = "revoked_at")
+})
+public class RevokedToken {
+
+    @Id
+    @Column(length = 36)
+    private String jti;
+
+    // Token 过期时间，之后该记录即可删除
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @Column(name = "revoked_at", nullable = false)
+    private LocalDateTime revokedAt;
+}
@@ -0,0 +1,21 @@
+package com.library.event;
+
+import com.library.dto.BorrowDTO;
+
+import java.util.List;
+
+/**
+ * 本次扫描新发现的逾期借阅记录，供通知、催还等模块监听（@EventListener）
+ */
+public class BorrowOverdueEvent {
+
+    private final List<BorrowDTO> borrows;
+
+    public BorrowOverdueEvent(List<BorrowDTO> borrows) {
+        this.borrows = borrows;
+    }
+
+    public List<BorrowDTO> getBorrows() {
+        return borrows;
+    }
+}
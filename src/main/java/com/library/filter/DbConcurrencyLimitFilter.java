@@ -0,0 +1,108 @@
+package com.library.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.common.Result;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 限制同时进入业务层（会占用数据库连接）的请求数。
+ * 虚拟线程模式下请求线程几乎不受限，超出连接池承受能力的请求在这里排队，等待超时直接返回 503，
+ * 而不是全部堆到 Hikari 上等 connection-timeout。
+ * 异步请求（StreamingResponseBody 导出）在 doFilter 返回后仍在读库，名额到异步处理结束时才归还
+ */
+public class DbConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    // 健康检查不排队：业务繁忙时也要如实返回，不能因为拿不到名额返回 503 让负载均衡摘掉实例
+    private static final String HEALTH_PATH = "/api/health";
+
+    private final Semaphore permits;
+    private final long acquireTimeoutMillis;
+    private final ObjectMapper objectMapper;
+
+    public DbConcurrencyLimitFilter(int maxConcurrent, long acquireTimeoutMillis, ObjectMapper objectMapper) {
+        this.permits = new Semaphore(maxConcurrent, true);
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return HEALTH_PATH.equals(request.getServletPath());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader("Retry-After", "1");
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+            objectMapper.writeValue(response.getWriter(), Result.error(503, "服务繁忙，请稍后重试"));
+            return;
+        }
+        boolean async = false;
+        try {
+            filterChain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                // 在本次分派返回前注册，异步处理即使已经结束，onComplete 也会在分派返回后触发
+                request.getAsyncContext().addListener(new ReleasePermitListener());
+                async = true;
+            }
+        } finally {
+            if (!async) {
+                permits.release();
+            }
+        }
+    }
+
+    /**
+     * 异步处理结束（正常完成、超时或出错最终都会走到 onComplete）时归还名额
+     */
+    private class ReleasePermitListener implements AsyncListener {
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            if (released.compareAndSet(false, true)) {
+                permits.release();
+            }
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // 再次 startAsync 时监听器会被清空，需要重新注册
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.library.mapper;
+
+import com.library.dto.BookDTO;
+import com.library.entity.Book;
+import com.library.entity.Category;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Book 与 BookDTO 互转：显式字段赋值，替代 BeanUtils.copyProperties 的反射拷贝
+ */
+public final class BookMapper {
+
+    private BookMapper() {
+    }
+
+    public static BookDTO toDTO(Book book) {
+        BookDTO dto = new BookDTO();
+        dto.setId(book.getId());
+        dto.setTitle(book.getTitle());
+        dto.setAuthor(book.getAuthor());
+        dto.setIsbn(book.getIsbn());
+        dto.setDescription(book.getDescription());
+        dto.setStock(book.getStock());
+        dto.setPrice(book.getPrice());
+        dto.setVersion(book.getVersion());
+        if (book.getCategory() != null) {
+            dto.setCategoryId(book.getCategory().getId());
+        }
+        return dto;
+    }
+
+    public static List<BookDTO> toDTOList(List<Book> books) {
+        List<BookDTO> result = new ArrayList<>(books.size());
+        for (Book book : books) {
+            result.add(toDTO(book));
+        }
+        return result;
+    }
+
+    /**
+     * categoryId 只生成一个带ID的 Category 引用，由服务层校验分类是否存在；
+     * id/version 原样带回，只有更新时使用（version 用于冲突检测），新增时由服务层清空
+     */
+    public static Book toEntity(BookDTO dto) {
+        Book book = new Book();
+        book.setId(dto.getId());
+        book.setTitle(dto.getTitle());
+        book.setAuthor(dto.getAuthor());
+        book.setIsbn(dto.getIsbn());
+        book.setDescription(dto.getDescription());
+        book.setStock(dto.getStock());
+        book.setPrice(dto.getPrice());
+        book.setVersion(dto.getVersion());
+        if (dto.getCategoryId() != null) {
+            Category category = new Category();
+            category.setId(dto.getCategoryId());
+            book.setCategory(category);
+        }
+        return book;
+    }
+}
@@ -0,0 +1,31 @@
+package com.library.mapper;
+
+import com.library.dto.BorrowDTO;
+import com.library.entity.Borrow;
+
+/**
+ * Borrow 转 BorrowDTO，借阅人与图书展开为 userId/username、bookId/bookTitle
+ */
+public final class BorrowMapper {
+
+    private BorrowMapper() {
+    }
+
+    public static BorrowDTO toDTO(Borrow borrow) {
+        BorrowDTO dto = new BorrowDTO();
+        dto.setId(borrow.getId());
+        dto.setBorrowTime(borrow.getBorrowTime());
+        dto.setDueTime(borrow.getDueTime());
+        dto.setReturnTime(borrow.getReturnTime());
+        dto.setReturned(borrow.getReturned());
+        if (borrow.getUser() != null) {
+            dto.setUserId(borrow.getUser().getId());
+            dto.setUsername(borrow.getUser().getUsername());
+        }
+        if (borrow.getBook() != null) {
+            dto.setBookId(borrow.getBook().getId());
+            dto.setBookTitle(borrow.getBook().getTitle());
+        }
+        return dto;
+    }
+}
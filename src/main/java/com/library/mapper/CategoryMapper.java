@@ -0,0 +1,35 @@
+package com.library.mapper;
+
+import com.library.dto.CategoryDTO;
+import com.library.entity.Category;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public final class CategoryMapper {
+
+    private CategoryMapper() {
+    }
+
+    public static CategoryDTO toDTO(Category category) {
+        CategoryDTO dto = new CategoryDTO();
+        dto.setId(category.getId());
+        dto.setName(category.getName());
+        return dto;
+    }
+
+    public static List<CategoryDTO> toDTOList(List<Category> categories) {
+        List<CategoryDTO> result = new ArrayList<>(categories.size());
+        for (Category category : categories) {
+            result.add(toDTO(category));
+        }
+        return result;
+    }
+
+    public static Category toEntity(CategoryDTO dto) {
+        Category category = new Category();
+        category.setId(dto.getId());
+        category.setName(dto.getName());
+        return category;
+    }
+}
@@ -0,0 +1,32 @@
+package com.library.mapper;
+
+import com.library.dto.UserDTO;
+import com.library.entity.User;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public final class UserMapper {
+
+    private UserMapper() {
+    }
+
+    /**
+     * 不返回密码
+     */
+    public static UserDTO toDTO(User user) {
+        UserDTO dto = new UserDTO();
+        dto.setId(user.getId());
+        dto.setUsername(user.getUsername());
+        dto.setRole(user.getRole());
+        return dto;
+    }
+
+    public static List<UserDTO> toDTOList(List<User> users) {
+        List<UserDTO> result = new ArrayList<>(users.size());
+        for (User user : users) {
+            result.add(toDTO(user));
+        }
+        return result;
+    }
+}
@@ -2,13 +2,67 @@ package com.library.repository;
 
 import com.library.entity.Book;
 import com.library.entity.Category;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
-public interface BookRepository extends JpaRepository<Book, Long> {
+public interface BookRepository extends JpaRepository<Book, Long>, JpaSpecificationExecutor<Book> {
 
     List<Book> findByCategory(Category category);
 
     List<Book> findByTitleContaining(String keyword);
+
+    // 按主键分批遍历（重建索引等全表扫描场景）
+    List<Book> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    // 全表流式读取（导出用），需在事务内消费并关闭；按 fetchSize 分批取行（MySQL 需开启 useCursorFetch），
+    // 只读且不写二级缓存
+    @Query("select b from Book b order by b.id")
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.fetchSize", value = "1000"),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true"),
+            @QueryHint(name = "jakarta.persistence.cache.storeMode", value = "BYPASS")
+    })
+    Stream<Book> streamAll();
+
+    // 条件更新原子扣减库存：只有 stock > 0 时才会更新，返回受影响行数（0 表示库存不足或图书不存在）
+    @Modifying
+    @Query("update Book b set b.stock = b.stock - 1 where b.id = :id and b.stock > 0")
+    int decrementStock(@Param("id") Long id);
+
+    // 原子归还库存
+    @Modifying
+    @Query("update Book b set b.stock = b.stock + 1 where b.id = :id")
+    int incrementStock(@Param("id") Long id);
+
+    // 管理员按差值调整库存，调整后不能为负；先写入元数据修改，执行后清空持久化上下文以便重新读取库存
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Book b set b.stock = b.stock + :delta where b.id = :id and b.stock + :delta >= 0")
+    int adjustStock(@Param("id") Long id, @Param("delta") int delta);
+
+    @Query("select coalesce(max(b.id), 0) from Book b")
+    long maxId();
+
+    // 图书列表的最后修改时间，启动时初始化 Last-Modified
+    @Query("select max(b.updatedAt) from Book b")
+    LocalDateTime maxUpdatedAt();
+
+    // 批量借阅：一条语句给每本书扣减 1 本库存，返回实际扣减的图书数
+    @Modifying
+    @Query("update Book b set b.stock = b.stock - 1 where b.id in :ids and b.stock > 0")
+    int decrementStockAll(@Param("ids") Collection<Long> ids);
+
+    // 总库存（统计用）
+    @Query("select coalesce(sum(b.stock), 0) from Book b")
+    long sumStock();
 }
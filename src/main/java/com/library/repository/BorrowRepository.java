@@ -1,15 +1,89 @@
 package com.library.repository;
 
+import com.library.dto.BorrowDTO;
+import com.library.dto.CategoryBorrowStatDTO;
 import com.library.entity.Book;
 import com.library.entity.Borrow;
 import com.library.entity.User;
+import org.springframework.data.domain.Pageable;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface BorrowRepository extends JpaRepository<Borrow, Long> {
 
     List<Borrow> findByUser(User user);
 
     List<Borrow> findByUserAndBookAndReturnedFalse(User user, Book book);
+
+    @Query("select br.user.id from Borrow br where br.id = :id")
+    Optional<Long> findUserIdById(@Param("id") Long id);
+
+    // 归还时锁定借阅记录本身，防止同一条记录被重复归还
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select br from Borrow br where br.id = :id")
+    Optional<Borrow> findByIdForUpdate(@Param("id") Long id);
+
+    // 批量归还：一条语句锁定全部借阅记录
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select br from Borrow br where br.id in :ids order by br.id")
+    List<Borrow> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
+
+    // 批量借阅：用户在这些图书中尚未归还的图书ID
+    @Query("select br.book.id from Borrow br where br.user.id = :userId and br.returned = false and br.book.id in :bookIds")
+    List<Long> findActiveBookIds(@Param("userId") Long userId, @Param("bookIds") Collection<Long> bookIds);
+
+    @Modifying
+    @Query("update Borrow br set br.returned = true, br.returnTime = :time, br.updatedAt = :time where br.id in :ids")
+    int markReturned(@Param("ids") Collection<Long> ids, @Param("time") LocalDateTime time);
+
+    // 以下列表查询一次 join 直接投影成 DTO，避免逐行懒加载 user / book（N+1）
+    String DTO_SELECT = "select new com.library.dto.BorrowDTO(br.id, u.id, u.username, b.id, b.title, " +
+            "br.borrowTime, br.dueTime, br.returnTime, br.returned) from Borrow br join br.user u join br.book b ";
+
+    @Query(DTO_SELECT + "order by br.id")
+    List<BorrowDTO> findAllDTO();
+
+    // 全表流式读取（导出用），需在事务内消费并关闭
+    @Query(DTO_SELECT + "order by br.id")
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    Stream<BorrowDTO> streamAllDTO();
+
+    @Query(DTO_SELECT + "where u.id = :userId order by br.id")
+    List<BorrowDTO> findDTOByUserId(@Param("userId") Long userId);
+
+    // 未归还的借阅记录（逾期引擎启动时加载）
+    @Query(DTO_SELECT + "where br.returned = false")
+    List<BorrowDTO> findOpenDTO();
+
+    @Query(DTO_SELECT + "where br.id in :ids")
+    List<BorrowDTO> findDTOByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query(DTO_SELECT + "where u.id = :userId and b.id in :bookIds and br.returned = false")
+    List<BorrowDTO> findActiveDTOByUserIdAndBookIds(@Param("userId") Long userId,
+                                                    @Param("bookIds") Collection<Long> bookIds);
+
+    @Query(DTO_SELECT + "order by br.id desc")
+    List<BorrowDTO> findRecentDTO(Pageable pageable);
+
+    // 以下为统计用聚合查询
+    long countByReturnedFalse();
+
+    long countByReturnedFalseAndDueTimeBefore(LocalDateTime time);
+
+    @Query("select new com.library.dto.CategoryBorrowStatDTO(c.id, c.name, count(br.id)) " +
+            "from Category c left join Book b on b.category = c left join Borrow br on br.book = b " +
+            "group by c.id, c.name")
+    List<CategoryBorrowStatDTO> countBorrowsGroupByCategory();
 }
@@ -1,9 +1,24 @@
 package com.library.repository;
 
 import com.library.entity.Category;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.time.LocalDateTime;
+import java.util.List;
 
 public interface CategoryRepository extends JpaRepository<Category, Long> {
 
     Category findByName(String name);
+
+    // 开启 Hibernate 查询缓存（l2cache 配置）时全部分类列表走查询缓存，未开启时该提示不生效
+    @Override
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
+    List<Category> findAll();
+
+    // 分类列表的最后修改时间，启动时初始化 Last-Modified
+    @Query("select max(c.updatedAt) from Category c")
+    LocalDateTime maxUpdatedAt();
 }
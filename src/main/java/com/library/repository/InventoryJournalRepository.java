@@ -0,0 +1,25 @@
+package com.library.repository;
+
+import com.library.entity.InventoryJournal;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface InventoryJournalRepository extends JpaRepository<InventoryJournal, Long> {
+
+    // 按写入顺序取一批待合并的增量（只能看到已提交的记录）
+    List<InventoryJournal> findByOrderByIdAsc(Pageable pageable);
+
+    // 图书的实际库存：book.stock 加上尚未合并的增量，一条语句读取，不会与并发的合并交错
+    @Query("select b.stock + coalesce((select sum(j.delta) from InventoryJournal j where j.bookId = b.id), 0) " +
+            "from Book b where b.id = :bookId")
+    Optional<Long> findAvailable(@Param("bookId") Long bookId);
+
+    // 全部尚未合并的增量之和（统计总库存用）
+    @Query("select coalesce(sum(j.delta), 0) from InventoryJournal j")
+    long sumDelta();
+}
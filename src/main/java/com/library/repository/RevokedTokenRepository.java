@@ -0,0 +1,30 @@
+package com.library.repository;
+
+import com.library.entity.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, String> {
+
+    // 启动时加载尚未过期的吊销记录
+    List<RevokedToken> findByExpiresAtAfter(LocalDateTime time);
+
+    // 增量同步其他实例新吊销的记录
+    List<RevokedToken> findByRevokedAtAfterAndExpiresAtAfter(LocalDateTime revokedAfter, LocalDateTime expiresAfter);
+
+    // 直接 INSERT，不经过 save 的 merge：jti 已存在时主键冲突，用于判断刷新 Token 是否已被使用
+    @Modifying
+    @Query(value = "insert into revoked_token (jti, expires_at, revoked_at) values (:jti, :expiresAt, :revokedAt)",
+            nativeQuery = true)
+    int insert(@Param("jti") String jti, @Param("expiresAt") LocalDateTime expiresAt,
+               @Param("revokedAt") LocalDateTime revokedAt);
+
+    @Modifying
+    @Query("delete from RevokedToken t where t.expiresAt < :time")
+    int deleteExpired(@Param("time") LocalDateTime time);
+}
@@ -2,9 +2,17 @@ package com.library.repository;
 
 import com.library.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface UserRepository extends JpaRepository<User, Long> {
 
     // 用于登录查找用户
     User findByUsername(String username);
+
+    // 仅当密码哈希未被并发修改时替换（登录后按新 cost 重新哈希），返回受影响行数
+    @Modifying
+    @Query("update User u set u.password = :newHash where u.id = :id and u.password = :oldHash")
+    int replacePasswordHash(@Param("id") Long id, @Param("oldHash") String oldHash, @Param("newHash") String newHash);
 }
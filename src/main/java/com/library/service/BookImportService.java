@@ -0,0 +1,18 @@
+package com.library.service;
+
+import com.library.common.DataFormat;
+import com.library.dto.ImportJobDTO;
+import org.springframework.web.multipart.MultipartFile;
+
+/**
+ * 图书批量导入：后台分批校验并用 JDBC 批量写入，通过任务ID查询进度和失败行
+ */
+public interface BookImportService {
+
+    /**
+     * 提交导入任务，立即返回任务状态
+     */
+    ImportJobDTO submit(MultipartFile file, DataFormat format);
+
+    ImportJobDTO getJob(String jobId);
+}
@@ -0,0 +1,38 @@
+package com.library.service;
+
+import com.library.entity.Book;
+
+import java.util.List;
+
+/**
+ * 图书全文检索：进程内倒排索引，覆盖书名、作者、ISBN、描述
+ */
+public interface BookSearchService {
+
+    /**
+     * 按相关度返回前 limit 个图书ID，最后一个词按前缀匹配
+     */
+    List<Long> search(String query, int limit);
+
+    /**
+     * 新增或更新索引（事务提交后生效）
+     */
+    void index(Book book);
+
+    /**
+     * 删除索引（事务提交后生效）
+     */
+    void remove(Long bookId);
+
+    /**
+     * 增量索引ID大于 afterId 的图书（批量导入后使用，不影响已有索引）
+     */
+    void indexAfter(long afterId);
+
+    /**
+     * 从数据库全量重建索引
+     */
+    void rebuild();
+
+    boolean isReady();
+}
@@ -1,14 +1,26 @@
 package com.library.service;
 
 import com.library.entity.Book;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+
 import java.util.List;
 
 public interface BookService {
 
     Book addBook(Book book);
 
+    /**
+     * 只修改元数据（书名、作者、分类等），忽略 book.stock；带版本号时与当前版本不一致则拒绝
+     */
     Book updateBook(Book book);
 
+    /**
+     * 库存按差值原子增减（管理员入库/下架），与并发借还互不覆盖，结果不能为负
+     */
+    Book adjustStock(Long id, int delta);
+
     void deleteBook(Long id);
 
     Book findById(Long id);
@@ -18,4 +30,14 @@ public interface BookService {
     List<Book> findByCategory(Long categoryId);
 
     List<Book> findByTitleContaining(String keyword);
+
+    /**
+     * 全文检索，按相关度返回前 limit 本
+     */
+    List<Book> search(String keyword, int limit);
+
+    /**
+     * keyset 游标分页，categoryId / keyword 可为空
+     */
+    Window<Book> scroll(Long categoryId, String keyword, Sort sort, KeysetScrollPosition position, int size);
 }
@@ -1,5 +1,7 @@
 package com.library.service;
 
+import com.library.dto.BatchResultDTO;
+import com.library.dto.BorrowDTO;
 import com.library.entity.Borrow;
 import java.util.List;
 
@@ -9,9 +11,26 @@ public interface BorrowService {
 
     Borrow returnBook(Long borrowId);
 
-    List<Borrow> findByUser(Long userId);
+    /**
+     * 批量借阅：不锁定图书，一次校验全部图书，一条语句条件扣减库存（并发借完时回滚重试），借阅记录一次批量插入
+     */
+    BatchResultDTO borrowBooks(Long userId, List<Long> bookIds, boolean allOrNothing);
+
+    /**
+     * 批量归还：operatorId 不为空时只能归还该用户自己的借阅记录
+     */
+    BatchResultDTO returnBooks(List<Long> borrowIds, boolean allOrNothing, Long operatorId);
+
+    List<BorrowDTO> findByUser(Long userId);
 
     Borrow findById(Long id);
 
-    List<Borrow> findAll();
+    /**
+     * 借阅记录所属用户ID（权限判断用）
+     */
+    Long findOwnerId(Long borrowId);
+
+    List<BorrowDTO> findAll();
+
+    List<BorrowDTO> findRecent(int limit);
 }
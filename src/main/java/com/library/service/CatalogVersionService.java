@@ -0,0 +1,44 @@
+package com.library.service;
+
+import com.library.common.ResourceVersion;
+
+import java.util.Collection;
+
+/**
+ * 图书/分类的内存版本号，写入提交后递增；接口据此生成 ETag/Last-Modified，
+ * 客户端带 If-None-Match / If-Modified-Since 且未变化时直接返回 304，不查库也不序列化。
+ * 启动时按 max(updated_at) 初始化，加载完成前返回 null（不做条件判断）。
+ * 版本号随主库提交递增，带这些版本号返回的数据必须从主库读取（@PrimaryRead），否则从库的旧数据会被标记成新版本
+ */
+public interface CatalogVersionService {
+
+    /**
+     * 图书列表（含查询、检索结果），任意图书变化都会改变
+     */
+    ResourceVersion books();
+
+    /**
+     * 单本图书
+     */
+    ResourceVersion book(Long bookId);
+
+    /**
+     * 分类列表
+     */
+    ResourceVersion categories();
+
+    /**
+     * 图书信息或库存变化（提交后生效）
+     */
+    void booksChanged(Collection<Long> bookIds);
+
+    /**
+     * 批量导入等无法逐本记录的变化，所有图书的版本一并失效（提交后生效）
+     */
+    void allBooksChanged();
+
+    /**
+     * 分类变化（提交后生效）
+     */
+    void categoriesChanged();
+}
@@ -0,0 +1,22 @@
+package com.library.service;
+
+import com.library.common.DataFormat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * 全量导出：从数据库流式读取并逐行写出，内存占用与总行数无关
+ */
+public interface ExportService {
+
+    /**
+     * 导出全部图书，返回写出的行数
+     */
+    long exportBooks(DataFormat format, OutputStream out) throws IOException;
+
+    /**
+     * 导出全部借阅记录，返回写出的行数
+     */
+    long exportBorrows(DataFormat format, OutputStream out) throws IOException;
+}
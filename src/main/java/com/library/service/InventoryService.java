@@ -0,0 +1,46 @@
+package com.library.service;
+
+/**
+ * 库存引擎（library.inventory.enabled=true 时启用）：每本图书的可借数量保存在内存分段计数器中，
+ * 借出时在内存里原子扣减，不再逐次更新 book 行，热门图书的行锁争用不再限制借阅吞吐。
+ * 借还在各自事务内写一条增量日志（inventory_journal），定时按图书汇总后批量合并到 book.stock；
+ * 日志与借阅记录同一事务提交，进程崩溃不会丢失增量，启动时先合并残留日志再按需加载计数器。
+ * 计数器只在本实例内有效，启用后应单实例部署（或按图书分片路由到固定实例）。
+ * <p>
+ * reserve / cancel / release 必须在事务内调用：预占在回滚时自动退回，归还在提交后才计入计数器，
+ * 本事务内的净增量在提交前一次写入日志
+ */
+public interface InventoryService {
+
+    boolean isEnabled();
+
+    /**
+     * 从计数器预占 quantity 本，余量不足时返回 false；图书不存在时也返回 false
+     */
+    boolean reserve(Long bookId, int quantity);
+
+    /**
+     * 退回本事务内已预占的数量（例如批量借阅整批失败）
+     */
+    void cancel(Long bookId, int quantity);
+
+    /**
+     * 归还或入库 quantity 本，提交后计入计数器
+     */
+    void release(Long bookId, int quantity);
+
+    /**
+     * 当前可借数量（计数器未加载时按数据库计算）
+     */
+    long available(Long bookId);
+
+    /**
+     * 把已提交的增量日志合并到 book.stock，返回合并的日志条数
+     */
+    int flush();
+
+    /**
+     * 启动时合并残留日志并清空计数器，之后按需从数据库重新加载
+     */
+    void reconcile();
+}
@@ -0,0 +1,26 @@
+package com.library.service;
+
+import com.library.common.LoginUser;
+import com.library.entity.User;
+
+/**
+ * 登录校验：限流 → 不存在用户名的负缓存 → 密码校验（独立线程池），必要时按新 cost 重新哈希；
+ * 以及刷新 Token 轮换和退出登录时的 Token 吊销
+ */
+public interface LoginService {
+
+    /**
+     * 校验用户名和密码，成功返回用户，用户名或密码错误返回 null；被限流或线程池繁忙时抛出 BusinessException
+     */
+    User authenticate(String username, String password, String clientIp);
+
+    /**
+     * 校验刷新 Token 并将其吊销（每个刷新 Token 只能用一次），返回对应的用户
+     */
+    User refresh(String refreshToken);
+
+    /**
+     * 退出登录：吊销当前用户的访问 Token 和刷新 Token（可为 null）；Token 不属于 currentUser 时抛出 BusinessException(403)，不吊销任何 Token
+     */
+    void logout(LoginUser currentUser, String accessToken, String refreshToken);
+}
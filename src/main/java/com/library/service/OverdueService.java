@@ -0,0 +1,37 @@
+package com.library.service;
+
+import com.library.common.CursorPage;
+import com.library.dto.BorrowDTO;
+
+/**
+ * 逾期检测：未归还借阅按应还时间放入内存小顶堆，定时只弹出到期的记录，不扫描借阅表
+ */
+public interface OverdueService {
+
+    /**
+     * 借出后登记（事务提交后生效）
+     */
+    void track(BorrowDTO borrow);
+
+    /**
+     * 归还后移除（事务提交后生效）
+     */
+    void untrack(Long borrowId);
+
+    /**
+     * 逾期记录游标分页，按应还时间从早到晚
+     */
+    CursorPage<BorrowDTO> findOverdue(String cursor, int size);
+
+    long countOverdue();
+
+    /**
+     * 把已到期的记录移入逾期集合，并发布 BorrowOverdueEvent
+     */
+    void tick();
+
+    /**
+     * 从数据库加载全部未归还记录
+     */
+    void rebuild();
+}
@@ -0,0 +1,23 @@
+package com.library.service;
+
+import java.util.function.Consumer;
+
+/**
+ * 密码哈希：BCrypt 计算放在独立的有界线程池中执行，并发登录/注册再多也只占用固定数量的 CPU 核
+ */
+public interface PasswordService {
+
+    boolean matches(String rawPassword, String encodedPassword);
+
+    String encode(String rawPassword);
+
+    /**
+     * 已存储的哈希与当前配置的 BCrypt cost 不一致时需要重新哈希
+     */
+    boolean needsRehash(String encodedPassword);
+
+    /**
+     * 后台按当前 cost 重新哈希，完成后回调新哈希；线程池繁忙时直接放弃，等下次登录再试
+     */
+    void rehashAsync(String rawPassword, Consumer<String> callback);
+}
@@ -0,0 +1,20 @@
+package com.library.service;
+
+import com.library.common.EncodedPayload;
+import com.library.common.ResourceVersion;
+
+import java.util.function.Supplier;
+
+/**
+ * 热点列表响应的字节缓存：分类列表、图书列表首页等每次打开页面都会请求、内容又很少变化的接口，
+ * 缓存序列化和 gzip 之后的字节，命中时直接写出，不查库也不经过 Jackson。
+ * 缓存项记录生成时的资源版本，写路径提交后版本递增，旧缓存项随之失效
+ */
+public interface PayloadCacheService {
+
+    /**
+     * 版本一致时返回缓存的字节，否则调用 loader 生成响应对象并序列化、压缩后缓存；
+     * version 为 null（版本尚未初始化）时只序列化不缓存。按版本缓存时 loader 内的只读查询走主库
+     */
+    EncodedPayload get(String key, ResourceVersion version, Supplier<?> loader);
+}
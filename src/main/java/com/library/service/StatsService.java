@@ -0,0 +1,45 @@
+package com.library.service;
+
+import com.library.dto.CacheStatsDTO;
+import com.library.dto.StatsSummaryDTO;
+import com.library.entity.Book;
+import com.library.entity.Borrow;
+
+import java.util.List;
+
+/**
+ * 仪表盘统计：内存快照 + 写路径增量更新，定期用聚合查询全量校准
+ */
+public interface StatsService {
+
+    StatsSummaryDTO getSummary();
+
+    /**
+     * 各服务层缓存的命中/未命中/淘汰统计
+     */
+    List<CacheStatsDTO> getCacheStats();
+
+    /**
+     * 用 COUNT/SUM 聚合查询重建快照
+     */
+    void refresh();
+
+    void onBookAdded(Book book);
+
+    void onBookDeleted(Book book);
+
+    void onStockChanged(int delta);
+
+    void onBorrowed(Borrow borrow);
+
+    void onReturned(Borrow borrow);
+
+    void onUserAdded();
+
+    void onUserDeleted();
+
+    /**
+     * 分类增删改、图书换分类等低频变更，直接标记快照失效，下次读取时全量重建
+     */
+    void invalidate();
+}
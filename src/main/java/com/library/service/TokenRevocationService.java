@@ -0,0 +1,35 @@
+package com.library.service;
+
+import java.util.Date;
+
+/**
+ * Token 吊销名单：内存布隆过滤器 + 并发集合，持久化到 revoked_token 表，启动时重建
+ */
+public interface TokenRevocationService {
+
+    /**
+     * 吊销 jti 对应的 Token，记录保留到 expiresAt 为止
+     */
+    void revoke(String jti, Date expiresAt);
+
+    /**
+     * 刷新 Token 轮换：按 jti 直接插入吊销记录，插入成功才算本次使用有效；jti 已存在（用过或已吊销）时返回 false。
+     * 由数据库主键保证原子性，并发或在不同实例上重放同一个刷新 Token 只有一次能成功
+     */
+    boolean consume(String jti, Date expiresAt);
+
+    /**
+     * 每个请求都会调用：绝大多数 Token 未被吊销，布隆过滤器直接判否，不查集合
+     */
+    boolean isRevoked(String jti);
+
+    /**
+     * 清理已过期的吊销记录（内存与数据库），必要时重建布隆过滤器
+     */
+    void purgeExpired();
+
+    /**
+     * 拉取其他实例新吊销的记录
+     */
+    void sync();
+}
@@ -15,5 +15,10 @@ public interface UserService {
 
     void deleteUser(Long id);
 
+    /**
+     * 替换密码哈希（明文不变，仅 cost 变化），密码已被修改时不覆盖
+     */
+    void updatePasswordHash(User user, String encodedPassword);
+
     List<User> findAll();
 }
@@ -0,0 +1,469 @@
+package com.library.service.impl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.common.DataFormat;
+import com.library.dto.BookDTO;
+import com.library.dto.ImportErrorDTO;
+import com.library.dto.ImportJobDTO;
+import com.library.entity.Category;
+import com.library.exception.BusinessException;
+import com.library.repository.BookRepository;
+import com.library.repository.CategoryRepository;
+import com.library.service.BookImportService;
+import com.library.service.BookSearchService;
+import com.library.service.CatalogVersionService;
+import com.library.service.StatsService;
+import com.library.util.CsvUtil;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+@Service
+public class BookImportServiceImpl implements BookImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookImportServiceImpl.class);
+
+    // 绕过 JPA 直接批量插入：IDENTITY 主键下 Hibernate 不做 INSERT 批处理，JDBC 批处理不受影响
+    private static final String INSERT_SQL = "insert into book (title, author, isbn, description, stock, price, " +
+            "category_id, created_at, updated_at, version) values (?, ?, ?, ?, ?, ?, ?, ?, ?, 0)";
+
+    private static final String RUNNING = "RUNNING";
+    private static final String COMPLETED = "COMPLETED";
+    private static final String FAILED = "FAILED";
+
+    // 与 Book 实体的列长度一致，提前拦截，避免整批插入失败
+    private static final int TITLE_MAX_LENGTH = 200;
+    private static final int AUTHOR_MAX_LENGTH = 100;
+    private static final int ISBN_MAX_LENGTH = 50;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private BookSearchService bookSearchService;
+
+    @Autowired
+    private StatsService statsService;
+
+    @Autowired
+    private CatalogVersionService catalogVersionService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Validator validator;
+
+    @Value("${library.import.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${library.import.max-errors:1000}")
+    private int maxErrors;
+
+    // 已结束任务的保留时间，单位：毫秒
+    @Value("${library.import.job-retention:3600000}")
+    private long jobRetention;
+
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+
+    // 导入任务串行执行，避免多个大文件同时占满连接池
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "book-import");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public ImportJobDTO submit(MultipartFile file, DataFormat format) {
+        if (file == null || file.isEmpty()) {
+            throw new BusinessException(400, "导入文件不能为空");
+        }
+        pruneFinishedJobs();
+        // 上传的临时文件在请求结束后会被删除，先转存再交给后台线程
+        Path path;
+        try {
+            path = Files.createTempFile("book-import-", "." + format.getExtension());
+            file.transferTo(path);
+        } catch (IOException e) {
+            throw new BusinessException(500, "保存导入文件失败: " + e.getMessage());
+        }
+        ImportJob job = new ImportJob(UUID.randomUUID().toString(), file.getOriginalFilename());
+        jobs.put(job.id, job);
+        executor.execute(() -> run(job, path, format));
+        return job.toDTO();
+    }
+
+    @Override
+    public ImportJobDTO getJob(String jobId) {
+        ImportJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new BusinessException(404, "导入任务不存在");
+        }
+        return job.toDTO();
+    }
+
+    private void run(ImportJob job, Path path, DataFormat format) {
+        long lastIdBefore = bookRepository.maxId();
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            CategoryLookup categories = loadCategories();
+            RowReader rows = format == DataFormat.CSV ? new CsvRowReader(reader) : new NdjsonRowReader(reader);
+            List<ImportRow> chunk = new ArrayList<>(batchSize);
+            ImportRow row;
+            while ((row = rows.next()) != null) {
+                chunk.add(row);
+                if (chunk.size() == batchSize) {
+                    processChunk(job, chunk, categories);
+                    chunk = new ArrayList<>(batchSize);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                processChunk(job, chunk, categories);
+            }
+            job.finish(COMPLETED, null);
+        } catch (Exception e) {
+            logger.error("图书导入失败: job={}", job.id, e);
+            job.finish(FAILED, e.getMessage());
+        } finally {
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException e) {
+                logger.warn("删除导入临时文件失败: {}", path, e);
+            }
+            if (job.succeeded.get() > 0) {
+                statsService.invalidate();
+                bookSearchService.indexAfter(lastIdBefore);
+                catalogVersionService.allBooksChanged();
+            }
+        }
+        logger.info("图书导入结束: job={}, status={}, succeeded={}, failed={}",
+                job.id, job.status, job.succeeded.get(), job.failed.get());
+    }
+
+    private void processChunk(ImportJob job, List<ImportRow> chunk, CategoryLookup categories) {
+        // 校验与分类解析互不依赖，按行并行
+        chunk.parallelStream().forEach(row -> validate(row, categories));
+
+        List<ImportRow> valid = new ArrayList<>(chunk.size());
+        for (ImportRow row : chunk) {
+            if (row.error == null) {
+                valid.add(row);
+            } else {
+                job.addError(row.number, row.error, maxErrors);
+            }
+        }
+        if (!valid.isEmpty()) {
+            insert(job, valid);
+        }
+        job.processed.addAndGet(chunk.size());
+    }
+
+    private void validate(ImportRow row, CategoryLookup categories) {
+        if (row.error != null) {
+            return;
+        }
+        BookDTO dto = row.book;
+        if (dto.getStock() == null) {
+            dto.setStock(0);
+        }
+        Set<ConstraintViolation<BookDTO>> violations = validator.validate(dto);
+        if (!violations.isEmpty()) {
+            row.error = violations.stream().map(ConstraintViolation::getMessage).collect(Collectors.joining(", "));
+            return;
+        }
+        if (dto.getTitle().length() > TITLE_MAX_LENGTH) {
+            row.error = "书名长度不能超过" + TITLE_MAX_LENGTH;
+        } else if (dto.getAuthor() != null && dto.getAuthor().length() > AUTHOR_MAX_LENGTH) {
+            row.error = "作者长度不能超过" + AUTHOR_MAX_LENGTH;
+        } else if (dto.getIsbn() != null && dto.getIsbn().length() > ISBN_MAX_LENGTH) {
+            row.error = "ISBN长度不能超过" + ISBN_MAX_LENGTH;
+        } else if (dto.getCategoryId() != null) {
+            if (!categories.ids.contains(dto.getCategoryId())) {
+                row.error = "分类不存在: " + dto.getCategoryId();
+            }
+        } else if (row.categoryName != null && !row.categoryName.isBlank()) {
+            Long categoryId = categories.idsByName.get(row.categoryName.trim());
+            if (categoryId == null) {
+                row.error = "分类不存在: " + row.categoryName;
+            } else {
+                dto.setCategoryId(categoryId);
+            }
+        }
+    }
+
+    private void insert(ImportJob job, List<ImportRow> rows) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    jdbcTemplate.batchUpdate(INSERT_SQL, rows, rows.size(), (ps, row) -> bind(ps, row.book, now)));
+            job.succeeded.addAndGet(rows.size());
+        } catch (DataAccessException e) {
+            // 整批失败时逐行重试，定位具体出错的行
+            logger.warn("批量插入失败，逐行重试: job={}, rows={}", job.id, rows.size(), e);
+            for (ImportRow row : rows) {
+                try {
+                    jdbcTemplate.update(INSERT_SQL, ps -> bind(ps, row.book, now));
+                    job.succeeded.incrementAndGet();
+                } catch (DataAccessException rowError) {
+                    job.addError(row.number, "写入失败: " + rowError.getMostSpecificCause().getMessage(), maxErrors);
+                }
+            }
+        }
+    }
+
+    private static void bind(PreparedStatement ps, BookDTO dto, Timestamp now) throws SQLException {
+        ps.setString(1, dto.getTitle());
+        ps.setString(2, dto.getAuthor());
+        ps.setString(3, dto.getIsbn());
+        ps.setString(4, dto.getDescription());
+        ps.setInt(5, dto.getStock());
+        ps.setBigDecimal(6, dto.getPrice());
+        if (dto.getCategoryId() != null) {
+            ps.setLong(7, dto.getCategoryId());
+        } else {
+            ps.setNull(7, Types.BIGINT);
+        }
+        ps.setTimestamp(8, now);
+        ps.setTimestamp(9, now);
+    }
+
+    /**
+     * 分类一次性读入内存，导入过程中按ID或名称查找
+     */
+    private CategoryLookup loadCategories() {
+        CategoryLookup lookup = new CategoryLookup();
+        for (Category category : categoryRepository.findAll()) {
+            lookup.ids.add(category.getId());
+            lookup.idsByName.put(category.getName(), category.getId());
+        }
+        return lookup;
+    }
+
+    private void pruneFinishedJobs() {
+        LocalDateTime expireBefore = LocalDateTime.now().minus(Duration.ofMillis(jobRetention));
+        jobs.values().removeIf(job -> job.finishedAt != null && job.finishedAt.isBefore(expireBefore));
+    }
+
+    private static class CategoryLookup {
+        final Set<Long> ids = new HashSet<>();
+        final Map<String, Long> idsByName = new HashMap<>();
+    }
+
+    private static class ImportRow {
+        final long number;
+        final BookDTO book;
+        final String categoryName;
+        volatile String error;
+
+        ImportRow(long number, BookDTO book, String categoryName, String error) {
+            this.number = number;
+            this.book = book;
+            this.categoryName = categoryName;
+            this.error = error;
+        }
+    }
+
+    private interface RowReader {
+
+        /**
+         * 读取下一行，文件结束返回 null；单行解析失败返回带错误信息的行，不中断导入
+         */
+        ImportRow next() throws IOException;
+    }
+
+    /**
+     * 表头决定列顺序，支持 title、author、isbn、description、stock、price、categoryId、category（分类名称），
+     * 其余列（如导出文件中的 id）忽略
+     */
+    private static class CsvRowReader implements RowReader {
+
+        private final BufferedReader reader;
+        private final Map<String, Integer> columns = new HashMap<>();
+        private long number = 0;
+
+        CsvRowReader(BufferedReader reader) throws IOException {
+            this.reader = reader;
+            List<String> header = CsvUtil.readRow(reader);
+            if (header == null) {
+                throw new BusinessException(400, "导入文件为空");
+            }
+            for (int i = 0; i < header.size(); i++) {
+                String name = header.get(i).trim();
+                if (i == 0 && name.startsWith("\uFEFF")) {
+                    name = name.substring(1);
+                }
+                columns.put(name.toLowerCase(Locale.ROOT), i);
+            }
+            if (!columns.containsKey("title")) {
+                throw new BusinessException(400, "CSV 缺少 title 列");
+            }
+        }
+
+        @Override
+        public ImportRow next() throws IOException {
+            List<String> fields = CsvUtil.readRow(reader);
+            if (fields == null) {
+                return null;
+            }
+            number++;
+            BookDTO dto = new BookDTO();
+            try {
+                dto.setTitle(text(fields, "title"));
+                dto.setAuthor(text(fields, "author"));
+                dto.setIsbn(text(fields, "isbn"));
+                dto.setDescription(text(fields, "description"));
+                String stock = text(fields, "stock");
+                dto.setStock(stock == null ? null : Integer.valueOf(stock.trim()));
+                String price = text(fields, "price");
+                dto.setPrice(price == null ? null : new BigDecimal(price.trim()));
+                String categoryId = text(fields, "categoryid");
+                dto.setCategoryId(categoryId == null ? null : Long.valueOf(categoryId.trim()));
+            } catch (NumberFormatException e) {
+                return new ImportRow(number, dto, null, "数字格式错误: " + e.getMessage());
+            }
+            return new ImportRow(number, dto, text(fields, "category"), null);
+        }
+
+        private String text(List<String> fields, String column) {
+            Integer index = columns.get(column);
+            if (index == null || index >= fields.size() || fields.get(index).isEmpty()) {
+                return null;
+            }
+            return fields.get(index);
+        }
+    }
+
+    /**
+     * 每行一个 JSON 对象，字段同 BookDTO，另支持 category（分类名称）；空行跳过
+     */
+    private class NdjsonRowReader implements RowReader {
+
+        private final BufferedReader reader;
+        private long number = 0;
+
+        NdjsonRowReader(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public ImportRow next() throws IOException {
+            String line;
+            do {
+                line = reader.readLine();
+                if (line == null) {
+                    return null;
+                }
+            } while (line.isBlank());
+            number++;
+            try {
+                JsonNode node = objectMapper.readTree(line);
+                BookDTO dto = objectMapper.treeToValue(node, BookDTO.class);
+                // id 由数据库生成，忽略文件中的值
+                dto.setId(null);
+                JsonNode category = node.get("category");
+                return new ImportRow(number, dto, category == null ? null : category.asText(), null);
+            } catch (IOException e) {
+                return new ImportRow(number, new BookDTO(), null, "JSON 格式错误: " + e.getMessage());
+            }
+        }
+    }
+
+    private static class ImportJob {
+        final String id;
+        final String filename;
+        final LocalDateTime startedAt = LocalDateTime.now();
+        final AtomicLong processed = new AtomicLong();
+        final AtomicLong succeeded = new AtomicLong();
+        final AtomicLong failed = new AtomicLong();
+        final List<ImportErrorDTO> errors = new ArrayList<>();
+        volatile String status = RUNNING;
+        volatile String message;
+        volatile LocalDateTime finishedAt;
+
+        ImportJob(String id, String filename) {
+            this.id = id;
+            this.filename = filename;
+        }
+
+        void addError(long row, String error, int maxErrors) {
+            failed.incrementAndGet();
+            synchronized (errors) {
+                if (errors.size() < maxErrors) {
+                    errors.add(new ImportErrorDTO(row, error));
+                }
+            }
+        }
+
+        void finish(String status, String message) {
+            this.message = message;
+            this.finishedAt = LocalDateTime.now();
+            this.status = status;
+        }
+
+        ImportJobDTO toDTO() {
+            ImportJobDTO dto = new ImportJobDTO();
+            dto.setId(id);
+            dto.setFilename(filename);
+            dto.setStatus(status);
+            dto.setProcessed(processed.get());
+            dto.setSucceeded(succeeded.get());
+            dto.setFailed(failed.get());
+            synchronized (errors) {
+                dto.setErrors(new ArrayList<>(errors));
+            }
+            dto.setMessage(message);
+            dto.setStartedAt(startedAt);
+            dto.setFinishedAt(finishedAt);
+            return dto;
+        }
+    }
+}
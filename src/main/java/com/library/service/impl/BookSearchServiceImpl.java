@@ -0,0 +1,248 @@
+package com.library.service.impl;
+
+import com.library.entity.Book;
+import com.library.repository.BookRepository;
+import com.library.service.BookSearchService;
+import com.library.util.TextTokenizer;
+import com.library.util.TransactionUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+@Service
+public class BookSearchServiceImpl implements BookSearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookSearchServiceImpl.class);
+
+    // 各字段权重：ISBN 命中最精确，其次书名、作者，描述最低
+    private static final float ISBN_WEIGHT = 4f;
+    private static final float TITLE_WEIGHT = 3f;
+    private static final float AUTHOR_WEIGHT = 2f;
+    private static final float DESCRIPTION_WEIGHT = 1f;
+
+    // 前缀命中的得分折扣，保证整词命中排在前面
+    private static final float PREFIX_FACTOR = 0.8f;
+
+    // 前缀最多展开的词数，避免单字母前缀扫描整个词典
+    private static final int MAX_PREFIX_TERMS = 64;
+
+    private static final int REBUILD_BATCH_SIZE = 1000;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    // 倒排表：词 -> (图书ID -> 词权重)，有序以支持前缀查找
+    private final ConcurrentSkipListMap<String, Map<Long, Float>> postings = new ConcurrentSkipListMap<>();
+
+    // 正排表：图书ID -> 该书的全部词，更新/删除时用来撤掉旧的倒排项
+    private final Map<Long, String[]> docTerms = new ConcurrentHashMap<>();
+
+    private volatile boolean ready = false;
+
+    @Override
+    public List<Long> search(String query, int limit) {
+        if (query == null || query.isBlank() || limit <= 0) {
+            return List.of();
+        }
+        List<String> terms = queryTerms(query.trim());
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+
+        int docCount = Math.max(docTerms.size(), 1);
+        Map<Long, Float> scores = null;
+        for (int i = 0; i < terms.size(); i++) {
+            String term = terms.get(i);
+            Map<Long, Float> matches = i == terms.size() - 1
+                    ? prefixMatches(term)
+                    : postings.getOrDefault(term, Map.of());
+            if (matches.isEmpty()) {
+                return List.of();
+            }
+            float idf = (float) Math.log(1 + (double) docCount / matches.size());
+            if (scores == null) {
+                scores = new HashMap<>(matches.size() * 2);
+                for (Map.Entry<Long, Float> e : matches.entrySet()) {
+                    scores.put(e.getKey(), e.getValue() * idf);
+                }
+            } else {
+                // 多个词之间取交集（AND），累加得分
+                Iterator<Map.Entry<Long, Float>> it = scores.entrySet().iterator();
+                while (it.hasNext()) {
+                    Map.Entry<Long, Float> e = it.next();
+                    Float weight = matches.get(e.getKey());
+                    if (weight == null) {
+                        it.remove();
+                    } else {
+                        e.setValue(e.getValue() + weight * idf);
+                    }
+                }
+                if (scores.isEmpty()) {
+                    return List.of();
+                }
+            }
+        }
+        return topK(scores, limit);
+    }
+
+    @Override
+    public void index(Book book) {
+        Long id = book.getId();
+        Map<String, Float> weights = analyze(book);
+        TransactionUtil.afterCommit(() -> put(id, weights));
+    }
+
+    @Override
+    public void remove(Long bookId) {
+        TransactionUtil.afterCommit(() -> removeInternal(bookId));
+    }
+
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        ready = false;
+        long start = System.currentTimeMillis();
+        synchronized (this) {
+            postings.clear();
+            docTerms.clear();
+        }
+        indexFrom(0L);
+        ready = true;
+        logger.info("图书检索索引构建完成: books={}, terms={}, 耗时 {} ms",
+                docTerms.size(), postings.size(), System.currentTimeMillis() - start);
+    }
+
+    @Override
+    public void indexAfter(long afterId) {
+        long start = System.currentTimeMillis();
+        int count = indexFrom(afterId);
+        logger.info("图书检索增量索引完成: books={}, 耗时 {} ms", count, System.currentTimeMillis() - start);
+    }
+
+    private int indexFrom(long afterId) {
+        int count = 0;
+        long lastId = afterId;
+        List<Book> batch;
+        do {
+            batch = bookRepository.findByIdGreaterThanOrderByIdAsc(lastId, PageRequest.of(0, REBUILD_BATCH_SIZE));
+            for (Book book : batch) {
+                put(book.getId(), analyze(book));
+            }
+            if (!batch.isEmpty()) {
+                lastId = batch.get(batch.size() - 1).getId();
+            }
+            count += batch.size();
+        } while (batch.size() == REBUILD_BATCH_SIZE);
+        return count;
+    }
+
+    @Override
+    public boolean isReady() {
+        return ready;
+    }
+
+    private List<String> queryTerms(String query) {
+        if (TextTokenizer.looksLikeIsbn(query)) {
+            String isbn = TextTokenizer.normalizeIsbn(query);
+            return isbn != null ? List.of(isbn) : List.of();
+        }
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(TextTokenizer.tokenize(query)));
+        if (terms.size() > 1) {
+            // 最后一个词做前缀匹配，其余按倒排表长度升序，让交集从最短的表开始
+            String last = terms.remove(terms.size() - 1);
+            terms.sort(Comparator.comparingInt(t -> postings.getOrDefault(t, Map.of()).size()));
+            terms.add(last);
+        }
+        return terms;
+    }
+
+    private Map<Long, Float> prefixMatches(String prefix) {
+        Map<Long, Float> result = new HashMap<>();
+        int expanded = 0;
+        for (Map.Entry<String, Map<Long, Float>> e
+                : postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false).entrySet()) {
+            if (expanded++ >= MAX_PREFIX_TERMS) {
+                break;
+            }
+            float factor = e.getKey().equals(prefix) ? 1f : PREFIX_FACTOR;
+            e.getValue().forEach((id, weight) -> result.merge(id, weight * factor, Math::max));
+        }
+        return result;
+    }
+
+    private List<Long> topK(Map<Long, Float> scores, int limit) {
+        Comparator<Map.Entry<Long, Float>> byScore = Map.Entry.<Long, Float>comparingByValue()
+                .thenComparing(Map.Entry.<Long, Float>comparingByKey().reversed());
+        PriorityQueue<Map.Entry<Long, Float>> heap = new PriorityQueue<>(limit + 1, byScore);
+        for (Map.Entry<Long, Float> e : scores.entrySet()) {
+            heap.offer(e);
+            if (heap.size() > limit) {
+                heap.poll();
+            }
+        }
+        List<Long> ids = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            ids.add(heap.poll().getKey());
+        }
+        // 小顶堆弹出顺序是从低到高，反转成得分降序
+        Collections.reverse(ids);
+        return ids;
+    }
+
+    private Map<String, Float> analyze(Book book) {
+        Map<String, Float> weights = new HashMap<>();
+        addField(weights, TextTokenizer.tokenize(book.getTitle()), TITLE_WEIGHT);
+        addField(weights, TextTokenizer.tokenize(book.getAuthor()), AUTHOR_WEIGHT);
+        String isbn = TextTokenizer.normalizeIsbn(book.getIsbn());
+        if (isbn != null) {
+            weights.merge(isbn, ISBN_WEIGHT, Float::sum);
+        }
+        addField(weights, TextTokenizer.tokenize(book.getDescription()), DESCRIPTION_WEIGHT);
+        // 次线性词频，避免描述里重复出现的词刷高得分
+        weights.replaceAll((term, w) -> (float) (1 + Math.log(w)));
+        return weights;
+    }
+
+    private void addField(Map<String, Float> weights, List<String> tokens, float fieldWeight) {
+        for (String token : tokens) {
+            weights.merge(token, fieldWeight, Float::sum);
+        }
+    }
+
+    private synchronized void put(Long id, Map<String, Float> weights) {
+        removeInternal(id);
+        for (Map.Entry<String, Float> e : weights.entrySet()) {
+            postings.computeIfAbsent(e.getKey(), k -> new ConcurrentHashMap<>()).put(id, e.getValue());
+        }
+        docTerms.put(id, weights.keySet().toArray(new String[0]));
+    }
+
+    private synchronized void removeInternal(Long id) {
+        String[] terms = docTerms.remove(id);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms) {
+            postings.computeIfPresent(term, (k, docs) -> {
+                docs.remove(id);
+                return docs.isEmpty() ? null : docs;
+            });
+        }
+    }
+}
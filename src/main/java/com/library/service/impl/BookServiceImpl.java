@@ -1,19 +1,44 @@
 package com.library.service.impl;
 
+import com.library.common.OptimisticRetry;
+import com.library.common.PrimaryRead;
+import com.library.config.CacheConfig;
+import com.library.config.MetricsConfig;
 import com.library.entity.Book;
 import com.library.entity.Category;
 import com.library.exception.BusinessException;
 import com.library.repository.BookRepository;
 import com.library.repository.CategoryRepository;
+import com.library.service.BookSearchService;
 import com.library.service.BookService;
+import com.library.service.CatalogVersionService;
+import com.library.service.InventoryService;
+import com.library.service.StatsService;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.Predicate;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.EscapeCharacter;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional
+@Timed(MetricsConfig.SERVICE_TIMER)
 public class BookServiceImpl implements BookService {
 
     @Autowired
@@ -22,8 +47,27 @@ public class BookServiceImpl implements BookService {
     @Autowired
     private CategoryRepository categoryRepository;
 
+    @Autowired
+    private StatsService statsService;
+
+    @Autowired
+    private BookSearchService bookSearchService;
+
+    @Autowired
+    private CatalogVersionService catalogVersionService;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
     @Override
     public Book addBook(Book book) {
+        // 新增一律插入：请求体带回的 id/version 会让 save 走 merge，覆盖已有图书或因版本不符失败
+        book.setId(null);
+        book.setVersion(null);
+
         // 验证分类是否存在
         if (book.getCategory() != null && book.getCategory().getId() != null) {
             Category category = categoryRepository.findById(book.getCategory().getId())
@@ -36,43 +80,116 @@ public class BookServiceImpl implements BookService {
             book.setStock(0);
         }
 
-        return bookRepository.save(book);
+        Book saved = bookRepository.save(book);
+        statsService.onBookAdded(saved);
+        bookSearchService.index(saved);
+        catalogVersionService.booksChanged(List.of(saved.getId()));
+        return saved;
     }
 
     @Override
+    @OptimisticRetry
+    @CacheEvict(cacheNames = CacheConfig.BOOKS, key = "#p0.id")
     public Book updateBook(Book book) {
+        // 不带版本号就无法判断编辑期间是否被他人修改，直接拒绝，避免后写覆盖先写
+        if (book.getVersion() == null) {
+            throw new BusinessException(400, "缺少版本号，请刷新后重试");
+        }
         Book existingBook = findById(book.getId());
+        // 客户端带回的版本号与当前不一致，说明编辑期间被其他管理员改过，不重试，交给用户刷新后决定
+        if (!book.getVersion().equals(existingBook.getVersion())) {
+            throw new BusinessException(409, "图书信息已被其他管理员修改，请刷新后重试");
+        }
+        Long oldCategoryId = existingBook.getCategory() != null ? existingBook.getCategory().getId() : null;
 
         // 验证分类是否存在
+        Category category = null;
         if (book.getCategory() != null && book.getCategory().getId() != null) {
-            Category category = categoryRepository.findById(book.getCategory().getId())
+            category = categoryRepository.findById(book.getCategory().getId())
                     .orElseThrow(() -> new BusinessException("分类不存在"));
-            book.setCategory(category);
         }
 
-        return bookRepository.save(book);
+        // 元数据复制到托管实体，提交时按版本号条件更新（只写修改过的列）；库存不在这里改，
+        // 否则会把读到的旧库存写回，覆盖这期间的借还
+        existingBook.setTitle(book.getTitle());
+        existingBook.setAuthor(book.getAuthor());
+        existingBook.setIsbn(book.getIsbn());
+        existingBook.setDescription(book.getDescription());
+        existingBook.setPrice(book.getPrice());
+        existingBook.setCategory(category);
+        Book saved = bookRepository.saveAndFlush(existingBook);
+
+        Long newCategoryId = saved.getCategory() != null ? saved.getCategory().getId() : null;
+        if (!Objects.equals(oldCategoryId, newCategoryId)) {
+            // 换分类会影响按分类的借阅统计，交给全量重建
+            statsService.invalidate();
+        }
+        bookSearchService.index(saved);
+        catalogVersionService.booksChanged(List.of(saved.getId()));
+        return saved;
     }
 
     @Override
-    public void deleteBook(Long id) {
-        if (!bookRepository.existsById(id)) {
-            throw new BusinessException("图书不存在");
+    @CacheEvict(cacheNames = CacheConfig.BOOKS, key = "#p0")
+    public Book adjustStock(Long id, int delta) {
+        if (inventoryService.isEnabled()) {
+            // 与借还走同一个计数器和增量日志，book.stock 在下次合并时更新
+            Book book = bookRepository.findById(id)
+                    .orElseThrow(() -> new BusinessException("图书不存在"));
+            if (delta < 0 && !inventoryService.reserve(id, -delta)) {
+                throw new BusinessException("库存不能为负数");
+            }
+            if (delta > 0) {
+                inventoryService.release(id, delta);
+            }
+            statsService.onStockChanged(delta);
+            catalogVersionService.booksChanged(List.of(id));
+            // 返回计数器里的库存（入库提交后才计入计数器，这里先加上），不是尚未合并的 book.stock；
+            // 先脱离持久化上下文，这个值不会被当作修改写回 book 行
+            entityManager.detach(book);
+            book.setStock((int) inventoryService.available(id) + Math.max(delta, 0));
+            return book;
+        }
+        if (bookRepository.adjustStock(id, delta) == 0) {
+            if (!bookRepository.existsById(id)) {
+                throw new BusinessException("图书不存在");
+            }
+            throw new BusinessException("库存不能为负数");
         }
-        bookRepository.deleteById(id);
+        statsService.onStockChanged(delta);
+        catalogVersionService.booksChanged(List.of(id));
+        return findById(id);
     }
 
     @Override
+    @OptimisticRetry
+    @CacheEvict(cacheNames = CacheConfig.BOOKS)
+    public void deleteBook(Long id) {
+        Book book = findById(id);
+        bookRepository.delete(book);
+        statsService.onBookDeleted(book);
+        bookSearchService.remove(id);
+        catalogVersionService.booksChanged(List.of(id));
+    }
+
+    @Override
+    @Cacheable(cacheNames = CacheConfig.BOOKS)
     public Book findById(Long id) {
         return bookRepository.findById(id)
                 .orElseThrow(() -> new BusinessException("图书不存在"));
     }
 
+    // 以下列表查询的响应都带 books 版本的 ETag，必须读主库，见 DataSourceConfig
     @Override
+    @PrimaryRead
+    @Transactional(readOnly = true)
     public List<Book> findAll() {
         return bookRepository.findAll();
     }
 
     @Override
+    @PrimaryRead
+    @Transactional(readOnly = true)
     public List<Book> findByCategory(Long categoryId) {
         Category category = categoryRepository.findById(categoryId)
                 .orElseThrow(() -> new BusinessException("分类不存在"));
@@ -80,7 +197,55 @@ public class BookServiceImpl implements BookService {
     }
 
     @Override
+    @PrimaryRead
+    @Transactional(readOnly = true)
     public List<Book> findByTitleContaining(String keyword) {
         return bookRepository.findByTitleContaining(keyword);
     }
+
+    @Override
+    @PrimaryRead
+    @Transactional(readOnly = true)
+    public List<Book> search(String keyword, int limit) {
+        if (!bookSearchService.isReady()) {
+            // 索引尚未构建完成时退回数据库模糊查询
+            return bookRepository.findByTitleContaining(keyword).stream()
+                    .limit(limit)
+                    .collect(Collectors.toList());
+        }
+        List<Long> ids = bookSearchService.search(keyword, limit);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        // 只按主键取命中的这一页，并保持相关度顺序
+        Map<Long, Book> books = bookRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity()));
+        return ids.stream()
+                .map(books::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 带筛选条件或翻页的结果不带 ETag、也不缓存，可以走从库；无条件的首页按版本缓存，由 PayloadCacheService 在主库上生成
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Window<Book> scroll(Long categoryId, String keyword, Sort sort, KeysetScrollPosition position, int size) {
+        Specification<Book> spec = (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (categoryId != null) {
+                predicates.add(cb.equal(root.get("category").get("id"), categoryId));
+            }
+            if (keyword != null && !keyword.isEmpty()) {
+                // 与派生查询 findByTitleContaining 一样转义 % 和 _，按字面匹配
+                EscapeCharacter escape = EscapeCharacter.DEFAULT;
+                predicates.add(cb.like(root.get("title"), "%" + escape.escape(keyword) + "%",
+                        escape.getEscapeCharacter()));
+            }
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+        // 只取 size 条（框架内部多取一条判断是否有下一页），不做 count 查询
+        return bookRepository.findBy(spec, q -> q.sortBy(sort).limit(size).scroll(position));
+    }
 }
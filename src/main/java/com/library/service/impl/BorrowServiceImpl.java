@@ -1,5 +1,11 @@
 package com.library.service.impl;
 
+import com.library.common.OptimisticRetry;
+import com.library.config.CacheConfig;
+import com.library.config.MetricsConfig;
+import com.library.dto.BatchItemResultDTO;
+import com.library.dto.BatchResultDTO;
+import com.library.dto.BorrowDTO;
 import com.library.entity.Book;
 import com.library.entity.Borrow;
 import com.library.entity.User;
@@ -7,16 +13,44 @@ import com.library.exception.BusinessException;
 import com.library.repository.BookRepository;
 import com.library.repository.BorrowRepository;
 import com.library.repository.UserRepository;
+import com.library.mapper.BorrowMapper;
 import com.library.service.BorrowService;
+import com.library.service.CatalogVersionService;
+import com.library.service.InventoryService;
+import com.library.service.OverdueService;
+import com.library.service.StatsService;
+import com.library.util.ReadYourWritesTracker;
+import com.library.util.TransactionUtil;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional
+@Timed(MetricsConfig.SERVICE_TIMER)
 public class BorrowServiceImpl implements BorrowService {
 
     @Autowired
@@ -28,7 +62,68 @@ public class BorrowServiceImpl implements BorrowService {
     @Autowired
     private BookRepository bookRepository;
 
+    @Autowired
+    private StatsService statsService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private OverdueService overdueService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // 启用读写分离时，借还之后的一段时间内该用户的查询走主库
+    @Autowired
+    private ReadYourWritesTracker readYourWritesTracker;
+
+    // 借还改变库存，图书的 ETag 随之变化
+    @Autowired
+    private CatalogVersionService catalogVersionService;
+
+    // 启用库存引擎时借还只改内存计数器并记增量日志，不再逐次更新 book 行
+    @Autowired
+    private InventoryService inventoryService;
+
+    // 成功借出/归还的图书册数（提交后计数），按 mode 区分单本与批量
+    private Counter borrowedSingle;
+    private Counter borrowedBatch;
+    private Counter returnedSingle;
+    private Counter returnedBatch;
+
+    // 借阅期限（天），借出时据此计算应还时间
+    @Value("${library.borrow.loan-days:30}")
+    private int loanDays;
+
+    // 单次批量借阅/归还的最大条数
+    @Value("${library.borrow.batch-max-size:50}")
+    private int batchMaxSize;
+
+    private static final String INSERT_BORROW_SQL = "insert into borrow (user_id, book_id, borrow_time, due_time, " +
+            "returned, created_at, updated_at) values (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INCREMENT_STOCK_SQL = "update book set stock = stock + ? where id = ?";
+
+    private static final String DECREMENT_STOCK_SQL = "update book set stock = stock - 1 where id = ? and stock > 0";
+
+    private static final String SKIPPED = "批次中有其他项校验失败，未执行";
+
+    private static final String DUPLICATED = "重复的ID";
+
+    @PostConstruct
+    public void initMetrics() {
+        borrowedSingle = operationCounter("borrow", "single");
+        borrowedBatch = operationCounter("borrow", "batch");
+        returnedSingle = operationCounter("return", "single");
+        returnedBatch = operationCounter("return", "batch");
+    }
+
     @Override
+    @CacheEvict(cacheNames = CacheConfig.BOOKS, key = "#p1")
     public Borrow borrowBook(Long userId, Long bookId) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new BusinessException("用户不存在"));
@@ -36,7 +131,8 @@ public class BorrowServiceImpl implements BorrowService {
         Book book = bookRepository.findById(bookId)
                 .orElseThrow(() -> new BusinessException("图书不存在"));
 
-        if (book.getStock() <= 0) {
+        // 快速失败，真正的库存校验由下面的条件更新保证；启用库存引擎时 book.stock 可能滞后，以计数器为准
+        if (!inventoryService.isEnabled() && book.getStock() <= 0) {
             throw new BusinessException("库存不足");
         }
 
@@ -46,53 +142,317 @@ public class BorrowServiceImpl implements BorrowService {
             throw new BusinessException("您已经借阅了这本书，请先归还");
         }
 
-        // 库存 -1
-        book.setStock(book.getStock() - 1);
-        bookRepository.save(book);
-
         Borrow record = new Borrow();
         record.setUser(user);
         record.setBook(book);
-        record.setBorrowTime(LocalDateTime.now());
+        LocalDateTime now = LocalDateTime.now();
+        record.setBorrowTime(now);
+        record.setDueTime(now.plusDays(loanDays));
         record.setReturned(false);
+        Borrow saved = borrowRepository.save(record);
 
-        return borrowRepository.save(record);
+        // 库存 -1：UPDATE ... WHERE stock > 0 原子扣减，并发借阅不会超卖；
+        // 放在事务最后一条语句，热门图书的行锁只持有到提交为止
+        if (!takeStock(bookId)) {
+            throw new BusinessException("库存不足");
+        }
+
+        statsService.onBorrowed(saved);
+        overdueService.track(BorrowMapper.toDTO(saved));
+        catalogVersionService.booksChanged(List.of(bookId));
+        readYourWritesTracker.markWritten();
+        countAfterCommit(borrowedSingle, 1);
+        return saved;
     }
 
     @Override
     public Borrow returnBook(Long borrowId) {
-        Borrow record = findById(borrowId);
+        Borrow record = borrowRepository.findByIdForUpdate(borrowId)
+                .orElseThrow(() -> new BusinessException("借阅记录不存在"));
 
         if (record.getReturned()) {
             throw new BusinessException("书籍已归还");
         }
 
-        // 更新库存 +1
-        Book book = record.getBook();
-        book.setStock(book.getStock() + 1);
-        bookRepository.save(book);
+        // 更新库存 +1（原子自增，不读-改-写整行）
+        Long bookId = record.getBook().getId();
+        putBackStock(bookId);
+        // 库存变了，图书详情缓存失效（提交后生效）
+        Cache bookCache = cacheManager.getCache(CacheConfig.BOOKS);
+        if (bookCache != null) {
+            bookCache.evict(bookId);
+        }
 
         record.setReturned(true);
         record.setReturnTime(LocalDateTime.now());
 
-        return borrowRepository.save(record);
+        Borrow saved = borrowRepository.save(record);
+        statsService.onReturned(saved);
+        overdueService.untrack(saved.getId());
+        catalogVersionService.booksChanged(List.of(bookId));
+        readYourWritesTracker.markWritten();
+        countAfterCommit(returnedSingle, 1);
+        return saved;
     }
 
     @Override
-    public List<Borrow> findByUser(Long userId) {
+    @OptimisticRetry
+    public BatchResultDTO borrowBooks(Long userId, List<Long> bookIds, boolean allOrNothing) {
+        checkBatchSize(bookIds.size());
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new BusinessException("用户不存在"));
-        return borrowRepository.findByUser(user);
+
+        Set<Long> ids = new LinkedHashSet<>(bookIds);
+        // 不锁定图书：按读到的库存校验，扣减时再由条件更新确认，热门图书的行锁只在扣减到提交之间持有
+        Map<Long, Book> books = bookRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity()));
+        Set<Long> alreadyBorrowed = Set.copyOf(borrowRepository.findActiveBookIds(userId, ids));
+
+        // 全部校验在写入之前完成，逐项记录失败原因
+        Map<Long, String> errors = new HashMap<>();
+        for (Long bookId : ids) {
+            Book book = books.get(bookId);
+            if (book == null) {
+                errors.put(bookId, "图书不存在");
+            } else if (!inventoryService.isEnabled() && book.getStock() <= 0) {
+                errors.put(bookId, "库存不足");
+            } else if (alreadyBorrowed.contains(bookId)) {
+                errors.put(bookId, "您已经借阅了这本书，请先归还");
+            }
+        }
+
+        // 重复的ID只处理第一次出现的那一项，其余记为失败
+        boolean duplicated = ids.size() < bookIds.size();
+        List<Long> toBorrow = ids.stream().filter(id -> !errors.containsKey(id)).collect(Collectors.toList());
+        if ((allOrNothing && (duplicated || !errors.isEmpty())) || toBorrow.isEmpty()) {
+            return buildResult(bookIds, errors, Map.of());
+        }
+
+        if (inventoryService.isEnabled()) {
+            // 逐本从计数器预占，预占失败的记为库存不足；整批模式下有一本失败就全部退回
+            List<Long> reserved = new ArrayList<>(toBorrow.size());
+            for (Long bookId : toBorrow) {
+                if (inventoryService.reserve(bookId, 1)) {
+                    reserved.add(bookId);
+                } else {
+                    errors.put(bookId, "库存不足");
+                }
+            }
+            if ((allOrNothing && !errors.isEmpty()) || reserved.isEmpty()) {
+                reserved.forEach(bookId -> inventoryService.cancel(bookId, 1));
+                return buildResult(bookIds, errors, Map.of());
+            }
+            toBorrow = reserved;
+        } else if (allOrNothing) {
+            if (bookRepository.decrementStockAll(toBorrow) != toBorrow.size()) {
+                // 一条语句扣减全部库存；扣减数不足说明校验之后有书被并发借完，整个事务回滚后重试，
+                // 重试时按最新库存逐项校验，借完的那几本记为库存不足
+                throw new OptimisticLockingFailureException("批量借阅期间库存被并发修改");
+            }
+        } else {
+            // 尽力模式逐本条件扣减（一次 JDBC 批量执行，按图书ID排序加锁），扣减 0 行的是校验之后被并发借完的，
+            // 记为库存不足，其余照常借出
+            List<Long> sorted = toBorrow.stream().sorted().collect(Collectors.toList());
+            int[] counts = jdbcTemplate.batchUpdate(DECREMENT_STOCK_SQL, sorted, sorted.size(),
+                    (ps, bookId) -> ps.setLong(1, bookId))[0];
+            List<Long> decremented = new ArrayList<>(sorted.size());
+            for (int i = 0; i < sorted.size(); i++) {
+                if (counts[i] == 0) {
+                    errors.put(sorted.get(i), "库存不足");
+                } else {
+                    decremented.add(sorted.get(i));
+                }
+            }
+            if (decremented.isEmpty()) {
+                return buildResult(bookIds, errors, Map.of());
+            }
+            toBorrow = decremented;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        Timestamp timestamp = Timestamp.valueOf(now);
+        Timestamp dueTime = Timestamp.valueOf(now.plusDays(loanDays));
+        jdbcTemplate.batchUpdate(INSERT_BORROW_SQL, toBorrow, toBorrow.size(), (ps, bookId) -> {
+            ps.setLong(1, userId);
+            ps.setLong(2, bookId);
+            ps.setTimestamp(3, timestamp);
+            ps.setTimestamp(4, dueTime);
+            ps.setBoolean(5, false);
+            ps.setTimestamp(6, timestamp);
+            ps.setTimestamp(7, timestamp);
+        });
+
+        Cache bookCache = cacheManager.getCache(CacheConfig.BOOKS);
+        for (Long bookId : toBorrow) {
+            if (bookCache != null) {
+                bookCache.evict(bookId);
+            }
+            Borrow borrow = new Borrow();
+            borrow.setUser(user);
+            borrow.setBook(books.get(bookId));
+            borrow.setBorrowTime(now);
+            statsService.onBorrowed(borrow);
+        }
+
+        Map<Long, BorrowDTO> created = borrowRepository.findActiveDTOByUserIdAndBookIds(userId, toBorrow).stream()
+                .collect(Collectors.toMap(BorrowDTO::getBookId, Function.identity()));
+        created.values().forEach(overdueService::track);
+        catalogVersionService.booksChanged(toBorrow);
+        readYourWritesTracker.markWritten();
+        countAfterCommit(borrowedBatch, toBorrow.size());
+        return buildResult(bookIds, errors, created);
     }
 
     @Override
+    public BatchResultDTO returnBooks(List<Long> borrowIds, boolean allOrNothing, Long operatorId) {
+        checkBatchSize(borrowIds.size());
+        Set<Long> ids = new LinkedHashSet<>(borrowIds);
+        Map<Long, Borrow> borrows = borrowRepository.findAllByIdForUpdate(ids).stream()
+                .collect(Collectors.toMap(Borrow::getId, Function.identity()));
+
+        Map<Long, String> errors = new HashMap<>();
+        for (Long borrowId : ids) {
+            Borrow borrow = borrows.get(borrowId);
+            if (borrow == null) {
+                errors.put(borrowId, "借阅记录不存在");
+            } else if (operatorId != null && !operatorId.equals(borrow.getUser().getId())) {
+                errors.put(borrowId, "无权限归还该借阅记录");
+            } else if (borrow.getReturned()) {
+                errors.put(borrowId, "书籍已归还");
+            }
+        }
+
+        boolean duplicated = ids.size() < borrowIds.size();
+        List<Long> toReturn = ids.stream().filter(id -> !errors.containsKey(id)).collect(Collectors.toList());
+        if ((allOrNothing && (duplicated || !errors.isEmpty())) || toReturn.isEmpty()) {
+            return buildResult(borrowIds, errors, Map.of());
+        }
+
+        // 同一本书可能被多条记录同时归还，按图书汇总后一次批量自增库存（按图书ID排序加锁）
+        Map<Long, Integer> stockDelta = new LinkedHashMap<>();
+        toReturn.stream()
+                .map(id -> borrows.get(id).getBook().getId())
+                .sorted()
+                .forEach(bookId -> stockDelta.merge(bookId, 1, Integer::sum));
+        if (inventoryService.isEnabled()) {
+            stockDelta.forEach(inventoryService::release);
+        } else {
+            jdbcTemplate.batchUpdate(INCREMENT_STOCK_SQL, new ArrayList<>(stockDelta.entrySet()), stockDelta.size(),
+                    (ps, entry) -> {
+                        ps.setInt(1, entry.getValue());
+                        ps.setLong(2, entry.getKey());
+                    });
+        }
+        borrowRepository.markReturned(toReturn, LocalDateTime.now());
+
+        Cache bookCache = cacheManager.getCache(CacheConfig.BOOKS);
+        if (bookCache != null) {
+            stockDelta.keySet().forEach(bookCache::evict);
+        }
+        for (Long borrowId : toReturn) {
+            statsService.onReturned(borrows.get(borrowId));
+            overdueService.untrack(borrowId);
+        }
+        catalogVersionService.booksChanged(stockDelta.keySet());
+        readYourWritesTracker.markWritten();
+        countAfterCommit(returnedBatch, toReturn.size());
+
+        Map<Long, BorrowDTO> returned = borrowRepository.findDTOByIdIn(toReturn).stream()
+                .collect(Collectors.toMap(BorrowDTO::getId, Function.identity()));
+        return buildResult(borrowIds, errors, returned);
+    }
+
+    private boolean takeStock(Long bookId) {
+        if (inventoryService.isEnabled()) {
+            return inventoryService.reserve(bookId, 1);
+        }
+        return bookRepository.decrementStock(bookId) > 0;
+    }
+
+    private void putBackStock(Long bookId) {
+        if (inventoryService.isEnabled()) {
+            inventoryService.release(bookId, 1);
+        } else {
+            bookRepository.incrementStock(bookId);
+        }
+    }
+
+    private Counter operationCounter(String type, String mode) {
+        return Counter.builder(MetricsConfig.BORROW_OPERATIONS)
+                .description("成功借出/归还的图书册数")
+                .tag("type", type)
+                .tag("mode", mode)
+                .register(meterRegistry);
+    }
+
+    private static void countAfterCommit(Counter counter, int amount) {
+        TransactionUtil.afterCommit(() -> counter.increment(amount));
+    }
+
+    private void checkBatchSize(int size) {
+        if (size > batchMaxSize) {
+            throw new BusinessException(400, "单次最多处理 " + batchMaxSize + " 条");
+        }
+    }
+
+    /**
+     * 按请求顺序组装逐项结果：重复的ID只有第一项有效，有错误的返回原因，成功的附带借阅记录，其余为整批模式下未执行
+     */
+    private BatchResultDTO buildResult(List<Long> requestIds, Map<Long, String> errors, Map<Long, BorrowDTO> done) {
+        List<BatchItemResultDTO> items = new ArrayList<>(requestIds.size());
+        int succeeded = 0;
+        Set<Long> seen = new LinkedHashSet<>();
+        for (Long id : requestIds) {
+            if (!seen.add(id)) {
+                items.add(new BatchItemResultDTO(id, false, DUPLICATED, null));
+                continue;
+            }
+            BorrowDTO borrow = done.get(id);
+            if (borrow != null) {
+                items.add(new BatchItemResultDTO(id, true, null, borrow));
+                succeeded++;
+            } else {
+                items.add(new BatchItemResultDTO(id, false, errors.getOrDefault(id, SKIPPED), null));
+            }
+        }
+        BatchResultDTO result = new BatchResultDTO();
+        result.setSucceeded(succeeded);
+        result.setFailed(items.size() - succeeded);
+        result.setItems(items);
+        return result;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<BorrowDTO> findByUser(Long userId) {
+        if (!userRepository.existsById(userId)) {
+            throw new BusinessException("用户不存在");
+        }
+        return borrowRepository.findDTOByUserId(userId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public Borrow findById(Long id) {
         return borrowRepository.findById(id)
                 .orElseThrow(() -> new BusinessException("借阅记录不存在"));
     }
 
     @Override
-    public List<Borrow> findAll() {
-        return borrowRepository.findAll();
+    public Long findOwnerId(Long borrowId) {
+        return borrowRepository.findUserIdById(borrowId)
+                .orElseThrow(() -> new BusinessException("借阅记录不存在"));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<BorrowDTO> findAll() {
+        return borrowRepository.findAllDTO();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<BorrowDTO> findRecent(int limit) {
+        return borrowRepository.findRecentDTO(PageRequest.of(0, limit));
     }
 }
@@ -0,0 +1,143 @@
+package com.library.service.impl;
+
+import com.library.common.ResourceVersion;
+import com.library.repository.BookRepository;
+import com.library.repository.CategoryRepository;
+import com.library.service.CatalogVersionService;
+import com.library.util.TransactionUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Service
+public class CatalogVersionServiceImpl implements CatalogVersionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogVersionServiceImpl.class);
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    // 进程启动标识写入 ETag：重启后内存版本号从头计数，不能与重启前签发的 ETag 相同
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    // 全局递增序号，每次变化取一个新值作为版本号
+    private final AtomicLong sequence = new AtomicLong();
+
+    // 单本图书的版本：未记录的图书使用 allBooks 版本
+    private final Map<Long, Stamp> bookStamps = new ConcurrentHashMap<>();
+
+    private volatile Stamp booksStamp;
+    private volatile Stamp allBooksStamp;
+    private volatile Stamp categoriesStamp;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void init() {
+        bookStamps.clear();
+        long booksModified = toMillis(bookRepository.maxUpdatedAt());
+        long categoriesModified = toMillis(categoryRepository.maxUpdatedAt());
+        synchronized (this) {
+            allBooksStamp = new Stamp(sequence.incrementAndGet(), booksModified);
+            booksStamp = allBooksStamp;
+            categoriesStamp = new Stamp(sequence.incrementAndGet(), categoriesModified);
+        }
+        logger.info("图书/分类版本初始化完成: books lastModified={}, categories lastModified={}",
+                booksModified, categoriesModified);
+    }
+
+    @Override
+    public ResourceVersion books() {
+        return toVersion("books", booksStamp);
+    }
+
+    @Override
+    public ResourceVersion book(Long bookId) {
+        Stamp all = allBooksStamp;
+        if (all == null) {
+            return null;
+        }
+        Stamp stamp = bookStamps.get(bookId);
+        return toVersion("book-" + bookId, stamp != null && stamp.version() > all.version() ? stamp : all);
+    }
+
+    @Override
+    public ResourceVersion categories() {
+        return toVersion("categories", categoriesStamp);
+    }
+
+    /**
+     * 版本号必须在缓存失效之后才递增：先递增的话，并发请求可能用新 ETag 标记从旧缓存读到的数据，
+     * 客户端之后会一直拿到 304。同理，接口应先取版本再查数据
+     */
+    @Override
+    public void booksChanged(Collection<Long> bookIds) {
+        List<Long> ids = List.copyOf(bookIds);
+        TransactionUtil.afterCommitCompleted(() -> bumpBooks(ids));
+    }
+
+    @Override
+    public void allBooksChanged() {
+        TransactionUtil.afterCommitCompleted(this::bumpAllBooks);
+    }
+
+    @Override
+    public void categoriesChanged() {
+        TransactionUtil.afterCommitCompleted(this::bumpCategories);
+    }
+
+    // 递增需要原子：并发提交时后写入的旧版本号会覆盖新版本号
+    private synchronized void bumpBooks(List<Long> ids) {
+        Stamp stamp = next(booksStamp);
+        ids.forEach(id -> bookStamps.put(id, stamp));
+        booksStamp = stamp;
+    }
+
+    private synchronized void bumpAllBooks() {
+        Stamp stamp = next(booksStamp);
+        // 单本版本都不会超过新的 allBooks 版本，清空即可
+        bookStamps.clear();
+        allBooksStamp = stamp;
+        booksStamp = stamp;
+    }
+
+    private synchronized void bumpCategories() {
+        categoriesStamp = next(categoriesStamp);
+    }
+
+    /**
+     * HTTP 日期精确到秒：同一秒内的多次变化也要让 Last-Modified 前进，否则只带 If-Modified-Since 的客户端会拿到 304
+     */
+    private Stamp next(Stamp previous) {
+        long now = System.currentTimeMillis() / 1000 * 1000;
+        long lastModified = previous == null ? now : Math.max(now, previous.lastModified() + 1000);
+        return new Stamp(sequence.incrementAndGet(), lastModified);
+    }
+
+    private ResourceVersion toVersion(String resource, Stamp stamp) {
+        if (stamp == null) {
+            return null;
+        }
+        return new ResourceVersion("W/\"" + resource + "-" + epoch + "-" + stamp.version() + "\"", stamp.lastModified());
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        LocalDateTime value = time != null ? time : LocalDateTime.now();
+        return value.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() / 1000 * 1000;
+    }
+
+    private record Stamp(long version, long lastModified) {
+    }
+}
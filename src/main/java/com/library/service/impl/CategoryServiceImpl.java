@@ -1,10 +1,19 @@
 package com.library.service.impl;
 
+import com.library.common.PrimaryRead;
+import com.library.config.CacheConfig;
+import com.library.config.MetricsConfig;
 import com.library.entity.Category;
 import com.library.exception.BusinessException;
 import com.library.repository.CategoryRepository;
+import com.library.service.CatalogVersionService;
 import com.library.service.CategoryService;
+import com.library.service.StatsService;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -12,21 +21,36 @@ import java.util.List;
 
 @Service
 @Transactional
+@Timed(MetricsConfig.SERVICE_TIMER)
 public class CategoryServiceImpl implements CategoryService {
 
     @Autowired
     private CategoryRepository categoryRepository;
 
+    @Autowired
+    private StatsService statsService;
+
+    @Autowired
+    private CatalogVersionService catalogVersionService;
+
     @Override
+    @CacheEvict(cacheNames = CacheConfig.CATEGORY_LIST, allEntries = true)
     public Category addCategory(Category category) {
         // 检查分类名称是否已存在
         if (categoryRepository.findByName(category.getName()) != null) {
             throw new BusinessException("分类名称已存在");
         }
-        return categoryRepository.save(category);
+        Category saved = categoryRepository.save(category);
+        statsService.invalidate();
+        catalogVersionService.categoriesChanged();
+        return saved;
     }
 
     @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.CATEGORIES, key = "#p0.id"),
+            @CacheEvict(cacheNames = CacheConfig.CATEGORY_LIST, allEntries = true)
+    })
     public Category updateCategory(Category category) {
         Category existingCategory = findById(category.getId());
 
@@ -37,24 +61,39 @@ public class CategoryServiceImpl implements CategoryService {
             }
         }
 
-        return categoryRepository.save(category);
+        Category saved = categoryRepository.save(category);
+        statsService.invalidate();
+        catalogVersionService.categoriesChanged();
+        return saved;
     }
 
     @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.CATEGORIES),
+            @CacheEvict(cacheNames = CacheConfig.CATEGORY_LIST, allEntries = true)
+    })
     public void deleteCategory(Long id) {
         if (!categoryRepository.existsById(id)) {
             throw new BusinessException("分类不存在");
         }
         categoryRepository.deleteById(id);
+        statsService.invalidate();
+        catalogVersionService.categoriesChanged();
     }
 
     @Override
+    @Cacheable(cacheNames = CacheConfig.CATEGORIES)
     public Category findById(Long id) {
         return categoryRepository.findById(id)
                 .orElseThrow(() -> new BusinessException("分类不存在"));
     }
 
+    /**
+     * 分类列表响应带 categories 版本的 ETag，缓存失效后必须从主库回填
+     */
     @Override
+    @PrimaryRead
+    @Cacheable(cacheNames = CacheConfig.CATEGORY_LIST, key = "'all'")
     public List<Category> findAll() {
         return categoryRepository.findAll();
     }
@@ -0,0 +1,173 @@
+package com.library.service.impl;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.library.common.DataFormat;
+import com.library.dto.BookDTO;
+import com.library.dto.BorrowDTO;
+import com.library.entity.Book;
+import com.library.mapper.BookMapper;
+import com.library.repository.BookRepository;
+import com.library.repository.BorrowRepository;
+import com.library.service.ExportService;
+import com.library.util.CsvUtil;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+@Service
+public class ExportServiceImpl implements ExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExportServiceImpl.class);
+
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private static final String[] BOOK_HEADER =
+            {"id", "title", "author", "isbn", "description", "stock", "price", "categoryId"};
+
+    private static final String[] BORROW_HEADER =
+            {"id", "userId", "username", "bookId", "bookTitle", "borrowTime", "dueTime", "returnTime", "returned"};
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private BorrowRepository borrowRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // 每写出多少行清空一次持久化上下文
+    @Value("${library.export.clear-interval:1000}")
+    private int clearInterval;
+
+    @Override
+    @Transactional(readOnly = true)
+    public long exportBooks(DataFormat format, OutputStream out) throws IOException {
+        try (Stream<Book> books = bookRepository.streamAll()) {
+            RowWriter<BookDTO> writer = format == DataFormat.CSV
+                    ? new CsvRowWriter<>(out, BOOK_HEADER, dto -> new Object[]{dto.getId(), dto.getTitle(),
+                            dto.getAuthor(), dto.getIsbn(), dto.getDescription(), dto.getStock(), dto.getPrice(),
+                            dto.getCategoryId()})
+                    : new NdjsonRowWriter<>(out, objectMapper.writerFor(BookDTO.class));
+            return export(books, BookMapper::toDTO, writer, "books");
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long exportBorrows(DataFormat format, OutputStream out) throws IOException {
+        try (Stream<BorrowDTO> borrows = borrowRepository.streamAllDTO()) {
+            RowWriter<BorrowDTO> writer = format == DataFormat.CSV
+                    ? new CsvRowWriter<>(out, BORROW_HEADER, dto -> new Object[]{dto.getId(), dto.getUserId(),
+                            dto.getUsername(), dto.getBookId(), dto.getBookTitle(), formatTime(dto.getBorrowTime()),
+                            formatTime(dto.getDueTime()), formatTime(dto.getReturnTime()), dto.getReturned()})
+                    : new NdjsonRowWriter<>(out, objectMapper.writerFor(BorrowDTO.class));
+            return export(borrows, Function.identity(), writer, "borrows");
+        }
+    }
+
+    private <T, R> long export(Stream<T> rows, Function<T, R> mapper, RowWriter<R> writer, String name)
+            throws IOException {
+        long start = System.currentTimeMillis();
+        long count = 0;
+        Iterator<T> iterator = rows.iterator();
+        while (iterator.hasNext()) {
+            writer.write(mapper.apply(iterator.next()));
+            // 已写出的实体不再需要，定期清空避免持久化上下文随行数增长
+            if (++count % clearInterval == 0) {
+                entityManager.clear();
+            }
+        }
+        writer.finish();
+        logger.info("导出 {} 完成: {} 行, 耗时 {} ms", name, count, System.currentTimeMillis() - start);
+        return count;
+    }
+
+    private static String formatTime(LocalDateTime time) {
+        return time == null ? null : TIME_FORMAT.format(time);
+    }
+
+    private interface RowWriter<T> {
+
+        void write(T row) throws IOException;
+
+        /**
+         * 刷出缓冲区，不关闭底层输出流
+         */
+        void finish() throws IOException;
+    }
+
+    /**
+     * 每行一个 JSON 对象，复用同一个 JsonGenerator，逐行写入其内部缓冲
+     */
+    private static class NdjsonRowWriter<T> implements RowWriter<T> {
+
+        private final JsonGenerator generator;
+        private final ObjectWriter objectWriter;
+
+        NdjsonRowWriter(OutputStream out, ObjectWriter objectWriter) throws IOException {
+            this.objectWriter = objectWriter.without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+            this.generator = objectWriter.getFactory().createGenerator(out);
+            this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            this.generator.setRootValueSeparator(null);
+        }
+
+        @Override
+        public void write(T row) throws IOException {
+            objectWriter.writeValue(generator, row);
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void finish() throws IOException {
+            generator.flush();
+        }
+    }
+
+    private static class CsvRowWriter<T> implements RowWriter<T> {
+
+        private final Writer writer;
+        private final Function<T, Object[]> columns;
+
+        CsvRowWriter(OutputStream out, String[] header, Function<T, Object[]> columns) throws IOException {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            this.columns = columns;
+            // UTF-8 BOM，Excel 直接打开时中文不乱码
+            writer.write('\uFEFF');
+            CsvUtil.writeRow(writer, (Object[]) header);
+        }
+
+        @Override
+        public void write(T row) throws IOException {
+            CsvUtil.writeRow(writer, columns.apply(row));
+        }
+
+        @Override
+        public void finish() throws IOException {
+            writer.flush();
+        }
+    }
+}
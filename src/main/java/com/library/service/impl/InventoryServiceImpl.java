@@ -0,0 +1,273 @@
+package com.library.service.impl;
+
+import com.library.config.CacheConfig;
+import com.library.entity.InventoryJournal;
+import com.library.repository.InventoryJournalRepository;
+import com.library.service.CatalogVersionService;
+import com.library.service.InventoryService;
+import com.library.util.StripedCounter;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Service
+public class InventoryServiceImpl implements InventoryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(InventoryServiceImpl.class);
+
+    private static final String INSERT_JOURNAL_SQL = "insert into inventory_journal (book_id, delta, created_at) values (?, ?, ?)";
+
+    private static final String INCREMENT_STOCK_SQL = "update book set stock = stock + ? where id = ?";
+
+    @Autowired
+    private InventoryJournalRepository journalRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private CatalogVersionService catalogVersionService;
+
+    @Value("${library.inventory.enabled:false}")
+    private boolean enabled;
+
+    // 每本图书计数器的分段数
+    @Value("${library.inventory.stripes:4}")
+    private int stripes;
+
+    // 每个合并事务最多处理的日志条数
+    @Value("${library.inventory.flush-batch-size:1000}")
+    private int flushBatchSize;
+
+    // 按需加载：第一次借还某本书时从数据库计算可借数量
+    private final Map<Long, StripedCounter> counters = new ConcurrentHashMap<>();
+
+    // 定时合并与启动时的合并互斥；合并在事务中查库，用 ReentrantLock 避免虚拟线程阻塞时占住载体线程
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public boolean reserve(Long bookId, int quantity) {
+        Pending pending = pending();
+        StripedCounter counter = counter(bookId);
+        if (counter == null || !counter.tryAcquire(quantity)) {
+            return false;
+        }
+        pending.reserved.merge(bookId, quantity, Integer::sum);
+        return true;
+    }
+
+    @Override
+    public void cancel(Long bookId, int quantity) {
+        Pending pending = pending();
+        int reserved = pending.reserved.getOrDefault(bookId, 0);
+        if (quantity > reserved) {
+            throw new IllegalStateException("退回数量超过本事务预占的数量: bookId=" + bookId);
+        }
+        if (quantity == reserved) {
+            pending.reserved.remove(bookId);
+        } else {
+            pending.reserved.put(bookId, reserved - quantity);
+        }
+        counters.get(bookId).add(quantity);
+    }
+
+    @Override
+    public void release(Long bookId, int quantity) {
+        Pending pending = pending();
+        // 在本事务写日志之前加载计数器：加载时读不到本事务的增量，提交后再计入，不会重复计算
+        counter(bookId);
+        pending.released.merge(bookId, quantity, Integer::sum);
+    }
+
+    @Override
+    public long available(Long bookId) {
+        StripedCounter counter = counters.get(bookId);
+        if (counter != null) {
+            return counter.sum();
+        }
+        return journalRepository.findAvailable(bookId).orElse(0L);
+    }
+
+    @Override
+    public int flush() {
+        int total = 0;
+        flushLock.lock();
+        try {
+            int merged;
+            do {
+                merged = transactionTemplate.execute(status -> flushBatch());
+                total += merged;
+            } while (merged == flushBatchSize);
+        } finally {
+            flushLock.unlock();
+        }
+        return total;
+    }
+
+    @Scheduled(fixedDelayString = "${library.inventory.flush-interval:1000}")
+    public void scheduledFlush() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        int merged = flush();
+        if (merged > 0) {
+            logger.debug("库存日志合并: {} 条, 耗时 {} ms", merged, System.currentTimeMillis() - start);
+        }
+    }
+
+    /**
+     * 在开始接收请求之前执行；未启用引擎时也要合并，关闭引擎前残留的日志不能丢
+     */
+    @Override
+    @PostConstruct
+    public void reconcile() {
+        counters.clear();
+        int merged = flush();
+        if (merged > 0) {
+            logger.info("启动时合并残留库存日志 {} 条", merged);
+        }
+        if (enabled) {
+            logger.info("库存引擎已启用: stripes={}, flushBatchSize={}", stripes, flushBatchSize);
+        }
+    }
+
+    private int flushBatch() {
+        List<InventoryJournal> entries = journalRepository.findByOrderByIdAsc(PageRequest.of(0, flushBatchSize));
+        if (entries.isEmpty()) {
+            return 0;
+        }
+        // 按图书汇总，按图书ID顺序更新，与其他批量更新的加锁顺序一致
+        Map<Long, Integer> deltas = new TreeMap<>();
+        List<Long> entryIds = new ArrayList<>(entries.size());
+        for (InventoryJournal entry : entries) {
+            deltas.merge(entry.getBookId(), entry.getDelta(), Integer::sum);
+            entryIds.add(entry.getId());
+        }
+        deltas.values().removeIf(delta -> delta == 0);
+        if (!deltas.isEmpty()) {
+            jdbcTemplate.batchUpdate(INCREMENT_STOCK_SQL, new ArrayList<>(deltas.entrySet()), deltas.size(),
+                    (ps, entry) -> {
+                        ps.setInt(1, entry.getValue());
+                        ps.setLong(2, entry.getKey());
+                    });
+        }
+        // 按ID删除本次读到的记录：ID 更小但当时尚未提交的日志不在其中，留到下次合并
+        journalRepository.deleteAllByIdInBatch(entryIds);
+
+        // book.stock 变了，图书缓存和 ETag 随之失效（提交后生效）
+        if (!deltas.isEmpty()) {
+            Cache bookCache = cacheManager.getCache(CacheConfig.BOOKS);
+            if (bookCache != null) {
+                deltas.keySet().forEach(bookCache::evict);
+            }
+            catalogVersionService.booksChanged(deltas.keySet());
+        }
+        return entries.size();
+    }
+
+    private StripedCounter counter(Long bookId) {
+        StripedCounter counter = counters.get(bookId);
+        if (counter != null) {
+            return counter;
+        }
+        // 库存与未合并增量一条语句读出；并发加载时只保留先放入的计数器，后加载的丢弃
+        Optional<Long> available = journalRepository.findAvailable(bookId);
+        if (available.isEmpty()) {
+            return null;
+        }
+        if (available.get() < 0) {
+            logger.warn("图书 {} 的库存为负数: {}，按 0 加载", bookId, available.get());
+        }
+        StripedCounter loaded = new StripedCounter(stripes, Math.max(0, available.get()));
+        StripedCounter existing = counters.putIfAbsent(bookId, loaded);
+        return existing != null ? existing : loaded;
+    }
+
+    private Pending pending() {
+        if (!enabled) {
+            throw new IllegalStateException("库存引擎未启用");
+        }
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("库存操作必须在事务内执行");
+        }
+        Pending pending = (Pending) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new Pending();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        return pending;
+    }
+
+    /**
+     * 一个事务内的库存变化：提交前把净增量写入日志（与借阅记录同一事务），
+     * 提交后把归还计入计数器，回滚时把预占退回计数器
+     */
+    private final class Pending implements TransactionSynchronization {
+
+        private final Map<Long, Integer> reserved = new TreeMap<>();
+        private final Map<Long, Integer> released = new TreeMap<>();
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            Map<Long, Integer> deltas = new TreeMap<>(released);
+            reserved.forEach((bookId, quantity) -> deltas.merge(bookId, -quantity, Integer::sum));
+            deltas.values().removeIf(delta -> delta == 0);
+            if (deltas.isEmpty()) {
+                return;
+            }
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            jdbcTemplate.batchUpdate(INSERT_JOURNAL_SQL, new ArrayList<>(deltas.entrySet()), deltas.size(),
+                    (ps, entry) -> {
+                        ps.setLong(1, entry.getKey());
+                        ps.setInt(2, entry.getValue());
+                        ps.setTimestamp(3, now);
+                    });
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(InventoryServiceImpl.this);
+            Map<Long, Integer> restore = status == STATUS_COMMITTED ? released : reserved;
+            restore.forEach((bookId, quantity) -> {
+                StripedCounter counter = counters.get(bookId);
+                if (counter != null) {
+                    counter.add(quantity);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.library.service.impl;
+
+import com.library.common.LoginUser;
+import com.library.config.CacheConfig;
+import com.library.entity.User;
+import com.library.exception.BusinessException;
+import com.library.service.LoginService;
+import com.library.service.PasswordService;
+import com.library.service.TokenRevocationService;
+import com.library.service.UserService;
+import com.library.util.JwtUtil;
+import com.library.util.TokenBucketLimiter;
+import io.jsonwebtoken.Claims;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+@Service
+public class LoginServiceImpl implements LoginService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoginServiceImpl.class);
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private PasswordService passwordService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    @Value("${library.login.per-username.capacity:5}")
+    private int usernameCapacity;
+
+    @Value("${library.login.per-username.refill-per-minute:5}")
+    private int usernameRefill;
+
+    @Value("${library.login.per-ip.capacity:30}")
+    private int ipCapacity;
+
+    @Value("${library.login.per-ip.refill-per-minute:60}")
+    private int ipRefill;
+
+    @Value("${library.login.max-tracked-keys:100000}")
+    private long maxTrackedKeys;
+
+    private TokenBucketLimiter usernameLimiter;
+    private TokenBucketLimiter ipLimiter;
+
+    @PostConstruct
+    public void init() {
+        usernameLimiter = new TokenBucketLimiter(usernameCapacity, usernameRefill, maxTrackedKeys);
+        ipLimiter = new TokenBucketLimiter(ipCapacity, ipRefill, maxTrackedKeys);
+    }
+
+    @Override
+    public User authenticate(String username, String password, String clientIp) {
+        // 先限流再做任何查库和哈希，洪水请求不消耗 BCrypt 的 CPU
+        if ((clientIp != null && !ipLimiter.tryAcquire(clientIp)) || !usernameLimiter.tryAcquire(username)) {
+            logger.debug("登录被限流: username='{}', ip={}", username, clientIp);
+            throw new BusinessException(429, "登录尝试过于频繁，请稍后再试");
+        }
+
+        // 不存在的用户名记入负缓存，重复尝试不再查库；注册或改名时失效
+        Cache misses = cacheManager.getCache(CacheConfig.USERNAME_MISSES);
+        if (misses != null && misses.get(username) != null) {
+            return null;
+        }
+        User user = userService.findByUsername(username);
+        if (user == null) {
+            if (misses != null) {
+                misses.put(username, Boolean.TRUE);
+            }
+            return null;
+        }
+
+        if (!passwordService.matches(password, user.getPassword())) {
+            return null;
+        }
+
+        // cost 配置变更后，用户下次登录成功时在后台按新 cost 重新哈希，不增加本次登录耗时
+        if (passwordService.needsRehash(user.getPassword())) {
+            passwordService.rehashAsync(password, encoded -> userService.updatePasswordHash(user, encoded));
+        }
+        return user;
+    }
+
+    @Override
+    public User refresh(String refreshToken) {
+        Claims claims = jwtUtil.getClaimsFromToken(refreshToken);
+        if (claims == null || jwtUtil.isExpired(claims) || !jwtUtil.isRefreshToken(claims)
+                || tokenRevocationService.isRevoked(claims.getId())) {
+            throw new BusinessException(401, "登录已过期，请重新登录");
+        }
+        Object userId = claims.get("userId");
+        User user;
+        try {
+            user = userService.findById(((Number) userId).longValue());
+        } catch (BusinessException e) {
+            throw new BusinessException(401, "登录已过期，请重新登录");
+        }
+        // 轮换：签发新 Token 之前先原子地插入旧 jti，并发或跨实例重放同一个刷新 Token 只有一个请求能通过，
+        // 被窃取的刷新 Token 最多只能用一次
+        if (!tokenRevocationService.consume(claims.getId(), claims.getExpiration())) {
+            throw new BusinessException(401, "登录已过期，请重新登录");
+        }
+        return user;
+    }
+
+    @Override
+    public void logout(LoginUser currentUser, String accessToken, String refreshToken) {
+        if (currentUser == null) {
+            throw new BusinessException(401, "请先登录");
+        }
+        Claims access = ownedClaims(currentUser, accessToken);
+        Claims refresh = ownedClaims(currentUser, refreshToken);
+        revoke(access);
+        revoke(refresh);
+    }
+
+    // 先校验两个 Token 都属于当前用户再吊销，不允许借退出登录吊销别人的 Token
+    private Claims ownedClaims(LoginUser currentUser, String token) {
+        if (token == null) {
+            return null;
+        }
+        Claims claims = jwtUtil.getClaimsFromToken(token);
+        if (claims == null) {
+            return null;
+        }
+        if (!(claims.get("userId") instanceof Number userId) || userId.longValue() != currentUser.getId()) {
+            throw new BusinessException(403, "Token 不属于当前用户");
+        }
+        return claims;
+    }
+
+    private void revoke(Claims claims) {
+        if (claims != null) {
+            tokenRevocationService.revoke(claims.getId(), claims.getExpiration());
+        }
+    }
+}
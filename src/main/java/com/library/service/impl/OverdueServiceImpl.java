@@ -0,0 +1,223 @@
+package com.library.service.impl;
+
+import com.library.common.CursorPage;
+import com.library.dto.BorrowDTO;
+import com.library.event.BorrowOverdueEvent;
+import com.library.exception.BusinessException;
+import com.library.repository.BorrowRepository;
+import com.library.service.OverdueService;
+import com.library.util.CursorUtil;
+import com.library.util.TransactionUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Service
+public class OverdueServiceImpl implements OverdueService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OverdueServiceImpl.class);
+
+    // 堆中已归还的残留项超过待到期项的这个倍数时压缩一次
+    private static final int COMPACT_FACTOR = 2;
+
+    private static final int COMPACT_MIN_SIZE = 1024;
+
+    @Autowired
+    private BorrowRepository borrowRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    // 未归还记录：借阅ID -> 记录
+    private final Map<Long, BorrowDTO> open = new ConcurrentHashMap<>();
+
+    // 尚未到期的记录按应还时间排成小顶堆；归还时不在堆中查找删除，弹出时再跳过（惰性删除）
+    private final PriorityQueue<DueEntry> dueQueue = new PriorityQueue<>();
+
+    // 已逾期记录，按 (应还时间, 借阅ID) 有序，供游标分页
+    private final ConcurrentSkipListMap<DueEntry, BorrowDTO> overdue = new ConcurrentSkipListMap<>();
+
+    private final AtomicLong overdueCount = new AtomicLong();
+
+    // 保护 open/dueQueue 的组合更新；重建时持锁查库，用 ReentrantLock 避免虚拟线程阻塞时占住载体线程
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private volatile boolean ready = false;
+
+    @Override
+    public void track(BorrowDTO borrow) {
+        if (borrow.getDueTime() == null) {
+            return;
+        }
+        TransactionUtil.afterCommit(() -> add(borrow));
+    }
+
+    @Override
+    public void untrack(Long borrowId) {
+        TransactionUtil.afterCommit(() -> remove(borrowId));
+    }
+
+    @Override
+    public CursorPage<BorrowDTO> findOverdue(String cursor, int size) {
+        if (!ready) {
+            throw new BusinessException(503, "逾期数据加载中，请稍后重试");
+        }
+        NavigableMap<DueEntry, BorrowDTO> view = overdue;
+        KeysetScrollPosition position = CursorUtil.decode(cursor);
+        if (!position.isInitial()) {
+            Object dueTime = position.getKeys().get("dueTime");
+            Object id = position.getKeys().get("id");
+            if (!(dueTime instanceof LocalDateTime) || !(id instanceof Long)) {
+                throw new BusinessException(400, "无效的分页游标");
+            }
+            view = overdue.tailMap(new DueEntry((LocalDateTime) dueTime, (Long) id), false);
+        }
+
+        List<BorrowDTO> content = new ArrayList<>(size);
+        DueEntry last = null;
+        Iterator<Map.Entry<DueEntry, BorrowDTO>> iterator = view.entrySet().iterator();
+        while (iterator.hasNext() && content.size() < size) {
+            Map.Entry<DueEntry, BorrowDTO> entry = iterator.next();
+            content.add(entry.getValue());
+            last = entry.getKey();
+        }
+        String nextCursor = null;
+        if (last != null && iterator.hasNext()) {
+            Map<String, Object> keys = new LinkedHashMap<>();
+            keys.put("dueTime", last.dueTime());
+            keys.put("id", last.borrowId());
+            nextCursor = CursorUtil.encode(ScrollPosition.forward(keys));
+        }
+        return CursorPage.of(content, nextCursor);
+    }
+
+    @Override
+    public long countOverdue() {
+        if (!ready) {
+            return borrowRepository.countByReturnedFalseAndDueTimeBefore(LocalDateTime.now());
+        }
+        return overdueCount.get();
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${library.overdue.tick-interval:60000}")
+    public void tick() {
+        if (!ready) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<BorrowDTO> newlyOverdue = new ArrayList<>();
+        lock.lock();
+        try {
+            DueEntry head;
+            while ((head = dueQueue.peek()) != null && !head.dueTime().isAfter(now)) {
+                dueQueue.poll();
+                BorrowDTO borrow = open.get(head.borrowId());
+                // 已归还或应还时间已变更的残留项直接丢弃
+                if (borrow != null && head.dueTime().equals(borrow.getDueTime())
+                        && overdue.putIfAbsent(head, borrow) == null) {
+                    overdueCount.incrementAndGet();
+                    newlyOverdue.add(borrow);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (!newlyOverdue.isEmpty()) {
+            logger.info("新增逾期借阅 {} 条，当前逾期共 {} 条", newlyOverdue.size(), overdueCount.get());
+            eventPublisher.publishEvent(new BorrowOverdueEvent(newlyOverdue));
+        }
+    }
+
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        LocalDateTime now = LocalDateTime.now();
+        // 与借还回调互斥：加载期间提交的借还会在加载完成后再应用，不会被快照覆盖
+        lock.lock();
+        try {
+            ready = false;
+            open.clear();
+            dueQueue.clear();
+            overdue.clear();
+            for (BorrowDTO borrow : borrowRepository.findOpenDTO()) {
+                if (borrow.getDueTime() == null) {
+                    continue;
+                }
+                open.put(borrow.getId(), borrow);
+                DueEntry entry = new DueEntry(borrow.getDueTime(), borrow.getId());
+                // 启动前就已逾期的记录直接归入逾期集合，不作为新逾期事件发布
+                if (entry.dueTime().isAfter(now)) {
+                    dueQueue.add(entry);
+                } else {
+                    overdue.put(entry, borrow);
+                }
+            }
+            overdueCount.set(overdue.size());
+            ready = true;
+        } finally {
+            lock.unlock();
+        }
+        logger.info("逾期引擎加载完成: open={}, overdue={}, 耗时 {} ms",
+                open.size(), overdueCount.get(), System.currentTimeMillis() - start);
+    }
+
+    private void add(BorrowDTO borrow) {
+        lock.lock();
+        try {
+            BorrowDTO previous = open.put(borrow.getId(), borrow);
+            if (previous != null && overdue.remove(new DueEntry(previous.getDueTime(), previous.getId())) != null) {
+                overdueCount.decrementAndGet();
+            }
+            dueQueue.add(new DueEntry(borrow.getDueTime(), borrow.getId()));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void remove(Long borrowId) {
+        lock.lock();
+        try {
+            BorrowDTO removed = open.remove(borrowId);
+            if (removed != null && overdue.remove(new DueEntry(removed.getDueTime(), borrowId)) != null) {
+                overdueCount.decrementAndGet();
+            }
+            long pending = open.size() - overdueCount.get();
+            if (dueQueue.size() > COMPACT_MIN_SIZE && dueQueue.size() > COMPACT_FACTOR * pending) {
+                dueQueue.removeIf(entry -> !open.containsKey(entry.borrowId()));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private record DueEntry(LocalDateTime dueTime, long borrowId) implements Comparable<DueEntry> {
+
+        @Override
+        public int compareTo(DueEntry other) {
+            int cmp = dueTime.compareTo(other.dueTime);
+            return cmp != 0 ? cmp : Long.compare(borrowId, other.borrowId);
+        }
+    }
+}
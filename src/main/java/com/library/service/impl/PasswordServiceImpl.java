@@ -0,0 +1,133 @@
+package com.library.service.impl;
+
+import com.library.exception.BusinessException;
+import com.library.service.PasswordService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+@Service
+public class PasswordServiceImpl implements PasswordService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PasswordServiceImpl.class);
+
+    // BCrypt 哈希格式：$2a$10$...，第二段为 cost
+    private static final Pattern BCRYPT_PREFIX = Pattern.compile("^\\$2[abxy]?\\$(\\d{2})\\$");
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Value("${library.password.bcrypt-cost:10}")
+    private int bcryptCost;
+
+    // 哈希线程数，0 表示 CPU 核数
+    @Value("${library.password.threads:0}")
+    private int threads;
+
+    // 排队上限，超出后直接拒绝而不是无限堆积
+    @Value("${library.password.queue-capacity:64}")
+    private int queueCapacity;
+
+    // 等待哈希结果的上限（含排队时间），单位：毫秒
+    @Value("${library.password.timeout:5000}")
+    private long timeout;
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    public void init() {
+        int size = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger index = new AtomicInteger();
+        executor = new ThreadPoolExecutor(size, size, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), r -> {
+                    Thread thread = new Thread(r, "password-hash-" + index.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public boolean matches(String rawPassword, String encodedPassword) {
+        if (rawPassword == null || encodedPassword == null) {
+            return false;
+        }
+        return submit(() -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public String encode(String rawPassword) {
+        return submit(() -> passwordEncoder.encode(rawPassword));
+    }
+
+    @Override
+    public boolean needsRehash(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        Matcher matcher = BCRYPT_PREFIX.matcher(encodedPassword);
+        return matcher.find() && Integer.parseInt(matcher.group(1)) != bcryptCost;
+    }
+
+    @Override
+    public void rehashAsync(String rawPassword, Consumer<String> callback) {
+        try {
+            executor.execute(() -> {
+                try {
+                    callback.accept(passwordEncoder.encode(rawPassword));
+                } catch (Exception e) {
+                    logger.warn("密码重新哈希失败: {}", e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            logger.debug("密码哈希线程池繁忙，跳过重新哈希");
+        }
+    }
+
+    private <T> T submit(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            throw new BusinessException(503, "服务繁忙，请稍后重试");
+        }
+        try {
+            return future.get(timeout, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new BusinessException(503, "服务繁忙，请稍后重试");
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new BusinessException(503, "服务繁忙，请稍后重试");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.library.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.common.EncodedPayload;
+import com.library.common.ResourceVersion;
+import com.library.config.CacheConfig;
+import com.library.service.PayloadCacheService;
+import com.library.util.PrimaryReads;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+@Service
+public class PayloadCacheServiceImpl implements PayloadCacheService {
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    // 与 Spring MVC 输出 JSON 使用同一个 ObjectMapper，缓存的字节与正常序列化结果一致
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${library.payload-cache.max-entry-bytes:4194304}")
+    private int maxEntryBytes;
+
+    @Value("${library.payload-cache.gzip-min-size:1024}")
+    private int gzipMinSize;
+
+    @Override
+    public EncodedPayload get(String key, ResourceVersion version, Supplier<?> loader) {
+        Cache cache = version != null ? cacheManager.getCache(CacheConfig.PAYLOADS) : null;
+        if (cache != null) {
+            EncodedPayload cached = cache.get(key, EncodedPayload.class);
+            if (cached != null && version.etag().equals(cached.etag())) {
+                return cached;
+            }
+        }
+        // 调用方先取版本再查数据：生成期间发生的写入会让版本前进，这里按旧版本缓存，下次请求即重新生成。
+        // 数据必须读主库：从库落后时读到的旧数据会以新版本缓存下来，直到下次写入才会被替换
+        Object value = version != null ? PrimaryReads.call(loader) : loader.get();
+        EncodedPayload payload = encode(version != null ? version.etag() : null, value);
+        if (cache != null && payload.body().length <= maxEntryBytes) {
+            cache.put(key, payload);
+        }
+        return payload;
+    }
+
+    private EncodedPayload encode(String etag, Object value) {
+        byte[] body;
+        try {
+            body = objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("响应序列化失败", e);
+        }
+        byte[] gzipBody = body.length >= gzipMinSize ? gzip(body) : null;
+        if (gzipBody != null && gzipBody.length >= body.length) {
+            gzipBody = null;
+        }
+        return new EncodedPayload(etag, body, gzipBody);
+    }
+
+    private static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(body.length / 4, 64));
+        try (GZIPOutputStream gzipOut = new GZIPOutputStream(out)) {
+            gzipOut.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,241 @@
+package com.library.service.impl;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.library.dto.CacheStatsDTO;
+import com.library.dto.CategoryBorrowStatDTO;
+import com.library.dto.StatsSummaryDTO;
+import com.library.entity.Book;
+import com.library.entity.Borrow;
+import com.library.repository.BookRepository;
+import com.library.repository.BorrowRepository;
+import com.library.repository.CategoryRepository;
+import com.library.repository.InventoryJournalRepository;
+import com.library.repository.UserRepository;
+import com.library.service.OverdueService;
+import com.library.service.StatsService;
+import com.library.util.TransactionUtil;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Service
+public class StatsServiceImpl implements StatsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StatsServiceImpl.class);
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private BorrowRepository borrowRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private InventoryJournalRepository inventoryJournalRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // 逾期数由逾期引擎按应还时间维护
+    @Autowired
+    private OverdueService overdueService;
+
+    private final AtomicLong totalBooks = new AtomicLong();
+    private final AtomicLong totalStock = new AtomicLong();
+    private final AtomicLong totalCategories = new AtomicLong();
+    private final AtomicLong totalUsers = new AtomicLong();
+    private final AtomicLong totalBorrows = new AtomicLong();
+    private final AtomicLong activeBorrows = new AtomicLong();
+
+    // categoryId -> 借阅次数 / 分类名
+    private final Map<Long, AtomicLong> categoryBorrowCounts = new ConcurrentHashMap<>();
+    private final Map<Long, String> categoryNames = new ConcurrentHashMap<>();
+
+    // 刷新期间会查库，用 ReentrantLock 而不是 synchronized，虚拟线程等待时不会占住载体线程
+    private final ReentrantLock refreshLock = new ReentrantLock();
+
+    private volatile boolean stale = true;
+    private volatile LocalDateTime refreshedAt;
+
+    // getSummary 内部调用 refresh() 不经过代理，@Transactional 不生效，所以刷新用编程式只读事务
+    private TransactionTemplate readOnlyTransaction;
+
+    @PostConstruct
+    public void init() {
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    @Override
+    public StatsSummaryDTO getSummary() {
+        if (stale) {
+            refresh();
+        }
+        StatsSummaryDTO dto = new StatsSummaryDTO();
+        dto.setTotalBooks(totalBooks.get());
+        dto.setTotalStock(totalStock.get());
+        dto.setTotalCategories(totalCategories.get());
+        dto.setTotalUsers(totalUsers.get());
+        dto.setTotalBorrows(totalBorrows.get());
+        dto.setActiveBorrows(activeBorrows.get());
+        dto.setOverdueBorrows(overdueService.countOverdue());
+        List<CategoryBorrowStatDTO> categories = new ArrayList<>(categoryNames.size());
+        categoryNames.forEach((id, name) -> {
+            AtomicLong count = categoryBorrowCounts.get(id);
+            categories.add(new CategoryBorrowStatDTO(id, name, count != null ? count.get() : 0L));
+        });
+        dto.setCategoryBorrows(categories);
+        dto.setRefreshedAt(refreshedAt);
+        return dto;
+    }
+
+    @Override
+    public List<CacheStatsDTO> getCacheStats() {
+        List<CacheStatsDTO> result = new ArrayList<>();
+        for (String name : cacheManager.getCacheNames()) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache instanceof TransactionAwareCacheDecorator decorator) {
+                cache = decorator.getTargetCache();
+            }
+            if (!(cache instanceof CaffeineCache caffeineCache)) {
+                continue;
+            }
+            com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache = caffeineCache.getNativeCache();
+            CacheStats stats = nativeCache.stats();
+            CacheStatsDTO dto = new CacheStatsDTO();
+            dto.setName(name);
+            dto.setSize(nativeCache.estimatedSize());
+            dto.setHitCount(stats.hitCount());
+            dto.setMissCount(stats.missCount());
+            dto.setEvictionCount(stats.evictionCount());
+            dto.setHitRate(stats.hitRate());
+            result.add(dto);
+        }
+        return result;
+    }
+
+    /**
+     * 全量校准：启动时执行一次，之后定期执行，用于修正增量更新之间的漂移
+     */
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${library.stats.refresh-interval:300000}",
+            initialDelayString = "${library.stats.refresh-interval:300000}")
+    public void refresh() {
+        refreshLock.lock();
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> doRefresh());
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    private void doRefresh() {
+        stale = false;
+        totalBooks.set(bookRepository.count());
+        // 启用库存引擎时还有尚未合并到 book.stock 的增量
+        totalStock.set(bookRepository.sumStock() + inventoryJournalRepository.sumDelta());
+        totalCategories.set(categoryRepository.count());
+        totalUsers.set(userRepository.count());
+        totalBorrows.set(borrowRepository.count());
+        activeBorrows.set(borrowRepository.countByReturnedFalse());
+
+        List<CategoryBorrowStatDTO> stats = borrowRepository.countBorrowsGroupByCategory();
+        categoryNames.keySet().retainAll(stats.stream().map(CategoryBorrowStatDTO::getCategoryId).toList());
+        categoryBorrowCounts.keySet().retainAll(categoryNames.keySet());
+        for (CategoryBorrowStatDTO stat : stats) {
+            categoryNames.put(stat.getCategoryId(), stat.getCategoryName());
+            categoryBorrowCounts.computeIfAbsent(stat.getCategoryId(), k -> new AtomicLong()).set(stat.getBorrowCount());
+        }
+        refreshedAt = LocalDateTime.now();
+        logger.debug("统计快照已刷新: books={}, borrows={}", totalBooks.get(), totalBorrows.get());
+    }
+
+    @Override
+    public void onBookAdded(Book book) {
+        int stock = book.getStock() != null ? book.getStock() : 0;
+        TransactionUtil.afterCommit(() -> {
+            totalBooks.incrementAndGet();
+            totalStock.addAndGet(stock);
+        });
+    }
+
+    @Override
+    public void onBookDeleted(Book book) {
+        int stock = book.getStock() != null ? book.getStock() : 0;
+        TransactionUtil.afterCommit(() -> {
+            totalBooks.decrementAndGet();
+            totalStock.addAndGet(-stock);
+        });
+    }
+
+    @Override
+    public void onStockChanged(int delta) {
+        if (delta != 0) {
+            TransactionUtil.afterCommit(() -> totalStock.addAndGet(delta));
+        }
+    }
+
+    @Override
+    public void onBorrowed(Borrow borrow) {
+        Long categoryId = borrow.getBook().getCategory() != null ? borrow.getBook().getCategory().getId() : null;
+        TransactionUtil.afterCommit(() -> {
+            totalBorrows.incrementAndGet();
+            activeBorrows.incrementAndGet();
+            totalStock.decrementAndGet();
+            if (categoryId != null) {
+                categoryBorrowCounts.computeIfAbsent(categoryId, k -> new AtomicLong()).incrementAndGet();
+            }
+        });
+    }
+
+    @Override
+    public void onReturned(Borrow borrow) {
+        TransactionUtil.afterCommit(() -> {
+            activeBorrows.decrementAndGet();
+            totalStock.incrementAndGet();
+        });
+    }
+
+    @Override
+    public void onUserAdded() {
+        TransactionUtil.afterCommit(totalUsers::incrementAndGet);
+    }
+
+    @Override
+    public void onUserDeleted() {
+        TransactionUtil.afterCommit(totalUsers::decrementAndGet);
+    }
+
+    @Override
+    public void invalidate() {
+        TransactionUtil.afterCommit(() -> stale = true);
+    }
+}
@@ -0,0 +1,175 @@
+package com.library.service.impl;
+
+import com.library.entity.RevokedToken;
+import com.library.repository.RevokedTokenRepository;
+import com.library.service.TokenRevocationService;
+import com.library.util.BloomFilter;
+import com.library.util.TransactionUtil;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+// 不在类上加 @Transactional：isRevoked 每个请求都会调用，不能经过事务拦截器
+@Service
+public class TokenRevocationServiceImpl implements TokenRevocationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationServiceImpl.class);
+
+    // 增量同步时向前多取一段时间，容忍各实例间的时钟偏差（重复加入是幂等的）
+    private static final long SYNC_OVERLAP_SECONDS = 60;
+
+    @Autowired
+    private RevokedTokenRepository revokedTokenRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    // 布隆过滤器初始容量与误判率，实际条数超过容量时自动按两倍重建
+    @Value("${library.token.revocation.expected-entries:100000}")
+    private int expectedEntries;
+
+    @Value("${library.token.revocation.fpp:0.001}")
+    private double fpp;
+
+    // jti -> 过期时间（毫秒时间戳）
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+
+    private volatile BloomFilter filter;
+
+    // 写入与重建互斥，保证重建期间新吊销的 jti 不会漏进新过滤器；读路径不加锁
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private volatile LocalDateTime lastSync;
+
+    /**
+     * 在 Web 服务开始接收请求之前加载，已吊销的 Token 不会在启动窗口内被放行
+     */
+    @PostConstruct
+    public void init() {
+        LocalDateTime now = LocalDateTime.now();
+        lock.lock();
+        try {
+            for (RevokedToken token : revokedTokenRepository.findByExpiresAtAfter(now)) {
+                revoked.put(token.getJti(), toMillis(token.getExpiresAt()));
+            }
+            rebuildFilter();
+        } finally {
+            lock.unlock();
+        }
+        lastSync = now;
+        logger.info("Token 吊销名单加载完成: {} 条", revoked.size());
+    }
+
+    @Override
+    @Transactional
+    public void revoke(String jti, Date expiresAt) {
+        if (jti == null || expiresAt == null || expiresAt.getTime() <= System.currentTimeMillis()) {
+            return;
+        }
+        RevokedToken token = new RevokedToken();
+        token.setJti(jti);
+        token.setExpiresAt(LocalDateTime.ofInstant(expiresAt.toInstant(), ZoneId.systemDefault()));
+        token.setRevokedAt(LocalDateTime.now());
+        // 重复吊销同一个 jti 时 save 为 merge，不会主键冲突
+        revokedTokenRepository.save(token);
+        TransactionUtil.afterCommit(() -> add(jti, expiresAt.getTime()));
+    }
+
+    @Override
+    public boolean consume(String jti, Date expiresAt) {
+        if (jti == null || expiresAt == null) {
+            return false;
+        }
+        LocalDateTime expires = LocalDateTime.ofInstant(expiresAt.toInstant(), ZoneId.systemDefault());
+        try {
+            // 主键冲突会让事务回滚，所以单独一个事务，在事务外判断结果
+            transactionTemplate.executeWithoutResult(status ->
+                    revokedTokenRepository.insert(jti, expires, LocalDateTime.now()));
+        } catch (DataIntegrityViolationException e) {
+            logger.warn("刷新 Token 重复使用: jti={}", jti);
+            return false;
+        }
+        add(jti, expiresAt.getTime());
+        return true;
+    }
+
+    @Override
+    public boolean isRevoked(String jti) {
+        if (jti == null || !filter.mightContain(jti)) {
+            return false;
+        }
+        Long expiresAt = revoked.get(jti);
+        return expiresAt != null && expiresAt > System.currentTimeMillis();
+    }
+
+    @Override
+    @Transactional
+    @Scheduled(fixedDelayString = "${library.token.revocation.purge-interval:600000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        lock.lock();
+        try {
+            if (revoked.values().removeIf(expiresAt -> expiresAt <= now)) {
+                rebuildFilter();
+            }
+        } finally {
+            lock.unlock();
+        }
+        int deleted = revokedTokenRepository.deleteExpired(LocalDateTime.now());
+        if (deleted > 0) {
+            logger.info("清理过期吊销记录 {} 条，当前 {} 条", deleted, revoked.size());
+        }
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${library.token.revocation.sync-interval:30000}")
+    public void sync() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime since = lastSync.minusSeconds(SYNC_OVERLAP_SECONDS);
+        for (RevokedToken token : revokedTokenRepository.findByRevokedAtAfterAndExpiresAtAfter(since, now)) {
+            if (!revoked.containsKey(token.getJti())) {
+                add(token.getJti(), toMillis(token.getExpiresAt()));
+            }
+        }
+        lastSync = now;
+    }
+
+    private void add(String jti, long expiresAt) {
+        lock.lock();
+        try {
+            revoked.put(jti, expiresAt);
+            if (revoked.size() > filter.capacity()) {
+                rebuildFilter();
+            } else {
+                filter.put(jti);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // 调用方需持有 lock
+    private void rebuildFilter() {
+        BloomFilter rebuilt = new BloomFilter(Math.max(expectedEntries, revoked.size() * 2), fpp);
+        revoked.keySet().forEach(rebuilt::put);
+        filter = rebuilt;
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
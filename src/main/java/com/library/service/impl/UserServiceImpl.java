@@ -1,11 +1,18 @@
 package com.library.service.impl;
 
+import com.library.config.CacheConfig;
+import com.library.config.MetricsConfig;
 import com.library.entity.User;
 import com.library.exception.BusinessException;
 import com.library.repository.UserRepository;
+import com.library.service.PasswordService;
+import com.library.service.StatsService;
 import com.library.service.UserService;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -13,35 +20,45 @@ import java.util.List;
 
 @Service
 @Transactional
+@Timed(MetricsConfig.SERVICE_TIMER)
 public class UserServiceImpl implements UserService {
 
     @Autowired
     private UserRepository userRepository;
 
-    @Autowired(required = false)
-    private PasswordEncoder passwordEncoder;
+    @Autowired
+    private PasswordService passwordService;
+
+    @Autowired
+    private StatsService statsService;
 
     @Override
+    @Cacheable(cacheNames = CacheConfig.USERS_BY_NAME, unless = "#result == null")
     public User findByUsername(String username) {
         return userRepository.findByUsername(username);
     }
 
     @Override
+    @Cacheable(cacheNames = CacheConfig.USERS)
     public User findById(Long id) {
         return userRepository.findById(id)
                 .orElseThrow(() -> new BusinessException("用户不存在"));
     }
 
     @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.USERS_BY_NAME, key = "#p0.username"),
+            @CacheEvict(cacheNames = CacheConfig.USERNAME_MISSES, key = "#p0.username")
+    })
     public User register(User user) {
         // 检查用户名是否已存在
         if (userRepository.findByUsername(user.getUsername()) != null) {
             throw new BusinessException("用户名已存在");
         }
 
-        // 密码加密（如果配置了PasswordEncoder）
-        if (passwordEncoder != null && user.getPassword() != null) {
-            user.setPassword(passwordEncoder.encode(user.getPassword()));
+        // 密码加密（在密码哈希线程池中执行）
+        if (user.getPassword() != null) {
+            user.setPassword(passwordService.encode(user.getPassword()));
         }
 
         // 设置默认角色
@@ -49,10 +66,18 @@ public class UserServiceImpl implements UserService {
             user.setRole("user");
         }
 
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        statsService.onUserAdded();
+        return saved;
     }
 
     @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.USERS, key = "#p0.id"),
+            // 可能改了用户名，旧用户名未知，整体清空（用户修改属于低频操作）
+            @CacheEvict(cacheNames = CacheConfig.USERS_BY_NAME, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.USERNAME_MISSES, key = "#p0.username")
+    })
     public User updateUser(User user) {
         User existingUser = findById(user.getId());
 
@@ -65,9 +90,7 @@ public class UserServiceImpl implements UserService {
 
         // 如果修改了密码，进行加密
         if (user.getPassword() != null && !user.getPassword().isEmpty()) {
-            if (passwordEncoder != null) {
-                user.setPassword(passwordEncoder.encode(user.getPassword()));
-            }
+            user.setPassword(passwordService.encode(user.getPassword()));
         } else {
             // 保持原密码
             user.setPassword(existingUser.getPassword());
@@ -77,14 +100,29 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.USERS),
+            @CacheEvict(cacheNames = CacheConfig.USERS_BY_NAME, allEntries = true)
+    })
     public void deleteUser(Long id) {
         if (!userRepository.existsById(id)) {
             throw new BusinessException("用户不存在");
         }
         userRepository.deleteById(id);
+        statsService.onUserDeleted();
+    }
+
+    @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.USERS, key = "#p0.id"),
+            @CacheEvict(cacheNames = CacheConfig.USERS_BY_NAME, key = "#p0.username")
+    })
+    public void updatePasswordHash(User user, String encodedPassword) {
+        userRepository.replacePasswordHash(user.getId(), user.getPassword(), encodedPassword);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<User> findAll() {
         return userRepository.findAll();
     }
@@ -0,0 +1,86 @@
+package com.library.util;
+
+import com.library.exception.BusinessException;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 游标编解码：把 keyset 分页位置编码成不透明的 URL 安全字符串
+ * 格式（Base64 之前）：key=类型:值;key=类型:值，类型 L 为 Long，T 为 LocalDateTime，S 为 String
+ */
+public final class CursorUtil {
+
+    private CursorUtil() {
+    }
+
+    /**
+     * 将 keyset 位置编码为游标
+     */
+    public static String encode(ScrollPosition position) {
+        if (!(position instanceof KeysetScrollPosition keyset) || keyset.isInitial()) {
+            return null;
+        }
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, Object> entry : keyset.getKeys().entrySet()) {
+            if (sb.length() > 0) {
+                sb.append(';');
+            }
+            sb.append(entry.getKey()).append('=').append(encodeValue(entry.getValue()));
+        }
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(sb.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解析游标，空游标表示从第一页开始
+     */
+    public static KeysetScrollPosition decode(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return ScrollPosition.keyset();
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            Map<String, Object> keys = new LinkedHashMap<>();
+            for (String pair : raw.split(";")) {
+                int eq = pair.indexOf('=');
+                keys.put(pair.substring(0, eq), decodeValue(pair.substring(eq + 1)));
+            }
+            return ScrollPosition.forward(keys);
+        } catch (RuntimeException e) {
+            throw new BusinessException(400, "无效的分页游标");
+        }
+    }
+
+    private static String encodeValue(Object value) {
+        if (value == null) {
+            throw new IllegalArgumentException("游标字段不能为空");
+        }
+        if (value instanceof Long) {
+            return "L:" + value;
+        }
+        if (value instanceof LocalDateTime) {
+            return "T:" + value;
+        }
+        return "S:" + value;
+    }
+
+    private static Object decodeValue(String value) {
+        String payload = value.substring(2);
+        switch (value.charAt(0)) {
+            case 'L':
+                return Long.valueOf(payload);
+            case 'T':
+                return LocalDateTime.parse(payload);
+            case 'S':
+                return payload;
+            default:
+                throw new IllegalArgumentException("未知的游标类型: " + value);
+        }
+    }
+}
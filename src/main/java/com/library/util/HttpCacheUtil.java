@@ -0,0 +1,76 @@
+package com.library.util;
+
+import com.library.common.EncodedPayload;
+import com.library.common.ResourceVersion;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+public final class HttpCacheUtil {
+
+    // 浏览器可以缓存，但每次使用前都要带条件请求回源验证；数据因用户而异，不允许共享缓存保存
+    private static final String CACHE_CONTROL = "private, no-cache";
+
+    private HttpCacheUtil() {
+    }
+
+    /**
+     * 写入 ETag/Last-Modified 并判断条件请求；返回 true 时响应已置为 304，处理方法直接返回 null 即可。
+     * version 为 null（版本尚未初始化）时不做判断，按普通请求处理。
+     * 返回 false 时响应体要与该版本一致，启用从库时需从主库读取（@PrimaryRead 或 PrimaryReads）
+     */
+    public static boolean checkNotModified(WebRequest webRequest, ResourceVersion version) {
+        if (version == null) {
+            return false;
+        }
+        if (webRequest instanceof ServletWebRequest servletWebRequest) {
+            HttpServletResponse response = servletWebRequest.getResponse();
+            if (response != null) {
+                response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+            }
+        }
+        return webRequest.checkNotModified(version.etag(), version.lastModified());
+    }
+
+    /**
+     * 把预先序列化好的响应字节原样写出：客户端接受 gzip 时直接发送压缩字节，不再经过 Jackson 和容器压缩
+     */
+    public static ResponseEntity<byte[]> payloadResponse(WebRequest webRequest, EncodedPayload payload) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (payload.gzipBody() != null && acceptsGzip(webRequest.getHeader(HttpHeaders.ACCEPT_ENCODING))) {
+            return builder.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(payload.gzipBody());
+        }
+        return builder.body(payload.body());
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        boolean wildcard = false;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            String name = parts[0].trim();
+            // q=0 表示明确拒绝该编码
+            boolean refused = false;
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim();
+                if (param.startsWith("q=") && param.substring(2).matches("0(\\.0*)?")) {
+                    refused = true;
+                }
+            }
+            if ("gzip".equalsIgnoreCase(name)) {
+                return !refused;
+            }
+            if ("*".equals(name)) {
+                wildcard = !refused;
+            }
+        }
+        return wildcard;
+    }
+}
@@ -1,8 +1,13 @@
 package com.library.util;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -10,9 +15,14 @@ import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class JwtUtil {
@@ -25,30 +35,80 @@ public class JwtUtil {
     // 当未通过配置或环境变量提供 secret 时回退的开发默认值（仅用于本地开发）
     private static final String DEFAULT_SECRET = "library-management-system-secret-key-2024-very-long-secret-key-for-production-use-at-least-256-bits";
 
-    @Value("${jwt.expiration:86400000}") // 24小时，单位：毫秒
+    // Token 类型：访问 Token 用于请求鉴权，刷新 Token 只能用于换取新的 Token
+    public static final String CLAIM_TYPE = "type";
+    public static final String TYPE_ACCESS = "access";
+    public static final String TYPE_REFRESH = "refresh";
+
+    @Value("${jwt.expiration:900000}") // 访问 Token 有效期 15 分钟，单位：毫秒
     private Long expiration;
 
+    @Value("${jwt.refresh-expiration:604800000}") // 刷新 Token 有效期 7 天，单位：毫秒
+    private Long refreshExpiration;
+
+    // 已验签 Claims 缓存的容量和最长存活时间（同时不会超过 Token 自身的过期时间）
+    @Value("${jwt.cache.max-size:10000}")
+    private long cacheMaxSize;
+
+    @Value("${jwt.cache.ttl:600000}")
+    private long cacheTtl;
+
+    // 密钥和解析器只构建一次（secret 缺失或过短时在首次使用时抛出，与之前行为一致）
+    private volatile SecretKey signingKey;
+    private volatile JwtParser jwtParser;
+
+    // Token 哈希 -> 已验签的 Claims，同一个 Token 在 TTL 内只验签一次
+    private Cache<String, Claims> claimsCache;
+
+    @PostConstruct
+    public void init() {
+        claimsCache = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfter(new ClaimsExpiry(cacheTtl))
+                .build();
+    }
+
     /**
-     * 生成Token
+     * 生成访问Token
      */
     public String generateToken(Long userId, String username, String role) {
+        return createToken(userClaims(userId, username, role, TYPE_ACCESS), username, expiration);
+    }
+
+    /**
+     * 生成刷新Token
+     */
+    public String generateRefreshToken(Long userId, String username, String role) {
+        return createToken(userClaims(userId, username, role, TYPE_REFRESH), username, refreshExpiration);
+    }
+
+    /**
+     * 是否为刷新Token（旧版本签发的 Token 没有类型，视为访问 Token）
+     */
+    public boolean isRefreshToken(Claims claims) {
+        return claims != null && TYPE_REFRESH.equals(claims.get(CLAIM_TYPE));
+    }
+
+    private static Map<String, Object> userClaims(Long userId, String username, String role, String type) {
         Map<String, Object> claims = new HashMap<>();
         claims.put("userId", userId);
         claims.put("username", username);
         claims.put("role", role);
-        return createToken(claims, username);
+        claims.put(CLAIM_TYPE, type);
+        return claims;
     }
 
     /**
-     * 创建Token
+     * 创建Token，每个 Token 带唯一的 jti，用于吊销
      */
-    private String createToken(Map<String, Object> claims, String subject) {
+    private String createToken(Map<String, Object> claims, String subject, long validity) {
         Date now = new Date();
-        Date expiryDate = new Date(now.getTime() + expiration);
-        SecretKey key = getSigningKey();
+        Date expiryDate = new Date(now.getTime() + validity);
+        SecretKey key = signingKey();
 
         return Jwts.builder()
                 .claims(claims)
+                .id(UUID.randomUUID().toString())
                 .subject(subject)
                 .issuedAt(now)
                 .expiration(expiryDate)
@@ -57,13 +117,21 @@ public class JwtUtil {
     }
 
     /**
-     * 从Token中获取Claims
+     * 从Token中获取Claims（优先命中缓存，未命中时验签并写入缓存）
      */
     public Claims getClaimsFromToken(String token) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+        String cacheKey = hashToken(token);
+        Claims cached = claimsCache.getIfPresent(cacheKey);
+        if (cached != null) {
+            return cached;
+        }
         try {
-            SecretKey key = getSigningKey();
-            // 使用与项目编译环境兼容的 JJWT API：parser() 返回一个 builder-like 对象，调用 build() 获取解析器
-            return Jwts.parser().setSigningKey(key).build().parseClaimsJws(token).getBody();
+            Claims claims = parser().parseSignedClaims(token).getPayload();
+            claimsCache.put(cacheKey, claims);
+            return claims;
         } catch (Exception e) {
             logger.warn("解析 JWT 失败: {}", e.getMessage());
             return null;
@@ -110,17 +178,22 @@ public class JwtUtil {
      */
     private Boolean isTokenExpired(String token) {
         try {
-            Claims claims = getClaimsFromToken(token);
-            if (claims == null) {
-                return true;
-            }
-            Date expiration = claims.getExpiration();
-            return expiration.before(new Date());
+            return isExpired(getClaimsFromToken(token));
         } catch (Exception e) {
             return true;
         }
     }
 
+    /**
+     * 判断Claims是否过期（供已拿到 Claims 的调用方直接使用，避免再次解析）
+     */
+    public boolean isExpired(Claims claims) {
+        if (claims == null || claims.getExpiration() == null) {
+            return true;
+        }
+        return claims.getExpiration().before(new Date());
+    }
+
     /**
      * 获取Token过期时间
      */
@@ -129,6 +202,76 @@ public class JwtUtil {
         return claims != null ? claims.getExpiration() : null;
     }
 
+    private SecretKey signingKey() {
+        SecretKey key = signingKey;
+        if (key == null) {
+            synchronized (this) {
+                key = signingKey;
+                if (key == null) {
+                    key = getSigningKey();
+                    signingKey = key;
+                }
+            }
+        }
+        return key;
+    }
+
+    private JwtParser parser() {
+        JwtParser parser = jwtParser;
+        if (parser == null) {
+            synchronized (this) {
+                parser = jwtParser;
+                if (parser == null) {
+                    parser = Jwts.parser().verifyWith(signingKey()).build();
+                    jwtParser = parser;
+                }
+            }
+        }
+        return parser;
+    }
+
+    private static String hashToken(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            // 所有 JDK 都必须提供 SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 缓存项存活时间取 min(ttl, Token 剩余有效期)，过期 Token 不会从缓存里被读到
+     */
+    private static final class ClaimsExpiry implements Expiry<String, Claims> {
+
+        private final long maxTtlNanos;
+
+        private ClaimsExpiry(long ttlMillis) {
+            this.maxTtlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        }
+
+        @Override
+        public long expireAfterCreate(String key, Claims claims, long currentTime) {
+            Date exp = claims.getExpiration();
+            if (exp == null) {
+                return maxTtlNanos;
+            }
+            long remaining = TimeUnit.MILLISECONDS.toNanos(exp.getTime() - System.currentTimeMillis());
+            return Math.max(0L, Math.min(maxTtlNanos, remaining));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, claims, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+
     private SecretKey getSigningKey() {
         String effective = secret;
         if (effective == null || effective.isEmpty()) {
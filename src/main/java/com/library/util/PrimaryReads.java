@@ -0,0 +1,44 @@
+package com.library.util;
+
+import java.util.function.Supplier;
+
+/**
+ * 在当前线程内强制只读事务也走主库，用于结果要和主库上的版本号对应的读取（按版本缓存的响应、带 ETag 的响应）：
+ * 从库有复制延迟，版本已经前进而从库还没追上时，读到的旧数据会被标记成新版本。未启用从库时没有影响
+ */
+public final class PrimaryReads {
+
+    private static final ThreadLocal<Integer> DEPTH = ThreadLocal.withInitial(() -> 0);
+
+    private PrimaryReads() {
+    }
+
+    public static <T> T call(Supplier<T> action) {
+        enter();
+        try {
+            return action.get();
+        } finally {
+            exit();
+        }
+    }
+
+    /**
+     * 进入主库读取范围，必须在 finally 中调用 {@link #exit()} 配对退出；可以嵌套
+     */
+    public static void enter() {
+        DEPTH.set(DEPTH.get() + 1);
+    }
+
+    public static void exit() {
+        int depth = DEPTH.get() - 1;
+        if (depth <= 0) {
+            DEPTH.remove();
+        } else {
+            DEPTH.set(depth);
+        }
+    }
+
+    public static boolean isActive() {
+        return DEPTH.get() > 0;
+    }
+}
@@ -0,0 +1,59 @@
+package com.library.util;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.library.common.LoginUser;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 读己之写：用户自己借还之后的一小段时间内，他的只读查询改走主库，避免从库复制延迟导致刚借的书"看不到"。
+ * 未启用从库时不记录
+ */
+@Component
+public class ReadYourWritesTracker {
+
+    @Value("${library.datasource.replica.enabled:false}")
+    private boolean replicaEnabled;
+
+    // 写入后读主库的时长，应大于从库的常见复制延迟，单位：毫秒
+    @Value("${library.datasource.replica.read-your-writes-window:5000}")
+    private long window;
+
+    @Value("${library.datasource.replica.max-tracked-users:100000}")
+    private long maxTrackedUsers;
+
+    private Cache<Long, Boolean> recentWriters;
+
+    @PostConstruct
+    public void init() {
+        recentWriters = Caffeine.newBuilder()
+                .maximumSize(maxTrackedUsers)
+                .expireAfterWrite(Duration.ofMillis(window))
+                .build();
+    }
+
+    /**
+     * 当前登录用户的写入提交后调用
+     */
+    public void markWritten() {
+        if (!replicaEnabled) {
+            return;
+        }
+        LoginUser user = SecurityUtil.currentUser();
+        if (user != null) {
+            TransactionUtil.afterCommit(() -> recentWriters.put(user.getId(), Boolean.TRUE));
+        }
+    }
+
+    /**
+     * 当前登录用户是否仍在写后读主库的窗口内
+     */
+    public boolean isWithinWindow() {
+        LoginUser user = SecurityUtil.currentUser();
+        return user != null && recentWriters.getIfPresent(user.getId()) != null;
+    }
+}
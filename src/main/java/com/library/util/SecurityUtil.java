@@ -0,0 +1,22 @@
+package com.library.util;
+
+import com.library.common.LoginUser;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+public final class SecurityUtil {
+
+    private SecurityUtil() {
+    }
+
+    /**
+     * 获取当前请求的登录用户，未登录时返回 null
+     */
+    public static LoginUser currentUser() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth != null && auth.getPrincipal() instanceof LoginUser user) {
+            return user;
+        }
+        return null;
+    }
+}
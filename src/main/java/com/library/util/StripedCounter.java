@@ -0,0 +1,85 @@
+package com.library.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 分段的非负计数器：总数分散在多个分段上，不同线程优先在各自的分段上 CAS，热点计数的争用分散到多个缓存行。
+ * tryAcquire 只在分段余量足够时扣减，任何时刻都不会出现负数；分段之间的扣减不是一次原子操作，
+ * 并发 add 时 tryAcquire 可能在总余量刚好够用时返回 false（等价于扣减发生在 add 之前）
+ */
+public class StripedCounter {
+
+    // 每个分段独占一个缓存行（8 个 long），避免相邻分段的 CAS 互相使缓存行失效
+    private static final int PADDING = 8;
+
+    private final AtomicLongArray cells;
+    private final int mask;
+
+    public StripedCounter(int stripes, long initial) {
+        if (initial < 0) {
+            throw new IllegalArgumentException("initial < 0");
+        }
+        // 分段数取不小于 stripes 的 2 的幂，按位与定位分段
+        int size = stripes <= 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1;
+        this.mask = size - 1;
+        this.cells = new AtomicLongArray(size * PADDING);
+        // 初始值平均分到各分段，余数放在前几个分段
+        for (int i = 0; i < size; i++) {
+            cells.set(i * PADDING, initial / size + (i < initial % size ? 1 : 0));
+        }
+    }
+
+    /**
+     * 扣减 n，余量不足时不扣减并返回 false
+     */
+    public boolean tryAcquire(long n) {
+        if (n <= 0) {
+            return true;
+        }
+        int start = probe();
+        long remaining = n;
+        // 先扣本线程的分段，不够再依次从其他分段扣
+        for (int i = 0; i <= mask && remaining > 0; i++) {
+            int index = ((start + i) & mask) * PADDING;
+            long value;
+            while ((value = cells.get(index)) > 0) {
+                long take = Math.min(value, remaining);
+                if (cells.compareAndSet(index, value, value - take)) {
+                    remaining -= take;
+                    break;
+                }
+            }
+        }
+        if (remaining > 0) {
+            // 总量不够，已扣的部分退回
+            add(n - remaining);
+            return false;
+        }
+        return true;
+    }
+
+    public void add(long n) {
+        if (n < 0) {
+            throw new IllegalArgumentException("n < 0");
+        }
+        if (n > 0) {
+            cells.getAndAdd(probe() * PADDING, n);
+        }
+    }
+
+    /**
+     * 各分段之和；并发修改时不是精确快照，仅用于展示和校验
+     */
+    public long sum() {
+        long sum = 0;
+        for (int i = 0; i <= mask; i++) {
+            sum += cells.get(i * PADDING);
+        }
+        return sum;
+    }
+
+    private int probe() {
+        long id = Thread.currentThread().getId();
+        return (int) ((id * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+    }
+}
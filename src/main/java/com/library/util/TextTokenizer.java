@@ -0,0 +1,100 @@
+package com.library.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 搜索分词：字母数字连续片段作为一个词（转小写），中日韩文字按二元组（bigram）切分，
+ * 单个汉字的片段保留为单字词
+ */
+public final class TextTokenizer {
+
+    private TextTokenizer() {
+    }
+
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return tokens;
+        }
+        String s = text.toLowerCase(Locale.ROOT);
+        int i = 0;
+        int n = s.length();
+        while (i < n) {
+            int cp = s.codePointAt(i);
+            if (isCjk(cp)) {
+                int start = i;
+                while (i < n && isCjk(s.codePointAt(i))) {
+                    i += Character.charCount(s.codePointAt(i));
+                }
+                addBigrams(s.substring(start, i), tokens);
+            } else if (Character.isLetterOrDigit(cp)) {
+                int start = i;
+                while (i < n) {
+                    int c = s.codePointAt(i);
+                    if (!Character.isLetterOrDigit(c) || isCjk(c)) {
+                        break;
+                    }
+                    i += Character.charCount(c);
+                }
+                tokens.add(s.substring(start, i));
+            } else {
+                i += Character.charCount(cp);
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * ISBN 去掉连字符和空格后整体作为一个词，便于整号或前缀匹配
+     */
+    public static String normalizeIsbn(String isbn) {
+        if (isbn == null) {
+            return null;
+        }
+        StringBuilder sb = new StringBuilder(isbn.length());
+        for (int i = 0; i < isbn.length(); i++) {
+            char c = isbn.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                sb.append(Character.toLowerCase(c));
+            }
+        }
+        return sb.length() > 0 ? sb.toString() : null;
+    }
+
+    /**
+     * 是否形如 ISBN（只含数字、连字符、空格和校验位 X）
+     */
+    public static boolean looksLikeIsbn(String text) {
+        boolean hasDigit = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isDigit(c)) {
+                hasDigit = true;
+            } else if (c != '-' && c != ' ' && c != 'x' && c != 'X') {
+                return false;
+            }
+        }
+        return hasDigit;
+    }
+
+    private static void addBigrams(String run, List<String> tokens) {
+        int[] cps = run.codePoints().toArray();
+        if (cps.length == 1) {
+            tokens.add(run);
+            return;
+        }
+        for (int k = 0; k + 1 < cps.length; k++) {
+            tokens.add(new String(cps, k, 2));
+        }
+    }
+
+    private static boolean isCjk(int cp) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(cp);
+        return script == Character.UnicodeScript.HAN
+                || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA
+                || script == Character.UnicodeScript.HANGUL;
+    }
+}
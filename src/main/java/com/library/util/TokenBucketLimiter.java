@@ -0,0 +1,57 @@
+package com.library.util;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+
+/**
+ * 按 key 的令牌桶限流：每个 key 一个桶，容量为 capacity，每分钟匀速补充 refillPerMinute 个令牌。
+ * 长时间未访问的桶会被淘汰（淘汰时桶已补满，等价于新建），内存占用受 maxKeys 约束
+ */
+public class TokenBucketLimiter {
+
+    private final int capacity;
+    private final double refillPerNano;
+    private final Cache<String, Bucket> buckets;
+
+    public TokenBucketLimiter(int capacity, int refillPerMinute, long maxKeys) {
+        this.capacity = capacity;
+        this.refillPerNano = refillPerMinute / (double) Duration.ofMinutes(1).toNanos();
+        // 空桶补满所需时间之后再淘汰，避免被淘汰后重新建桶而提前恢复配额
+        long fullRefillNanos = (long) Math.ceil(capacity / refillPerNano);
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(Duration.ofNanos(fullRefillNanos))
+                .build();
+    }
+
+    /**
+     * 取一个令牌，桶空时返回 false
+     */
+    public boolean tryAcquire(String key) {
+        return buckets.get(key, k -> new Bucket(capacity)).tryAcquire(capacity, refillPerNano);
+    }
+
+    private static final class Bucket {
+
+        private double tokens;
+        private long lastRefill;
+
+        Bucket(int capacity) {
+            this.tokens = capacity;
+            this.lastRefill = System.nanoTime();
+        }
+
+        synchronized boolean tryAcquire(int capacity, double refillPerNano) {
+            long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (now - lastRefill) * refillPerNano);
+            lastRefill = now;
+            if (tokens < 1) {
+                return false;
+            }
+            tokens -= 1;
+            return true;
+        }
+    }
+}
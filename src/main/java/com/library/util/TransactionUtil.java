@@ -0,0 +1,45 @@
+package com.library.util;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+public final class TransactionUtil {
+
+    private TransactionUtil() {
+    }
+
+    /**
+     * 在当前事务提交后执行（没有事务时立即执行），用于同步内存结构，避免回滚后数据不一致
+     */
+    public static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * 在当前事务提交且全部 afterCommit 回调（包括事务感知缓存的失效）执行完之后执行，没有事务时立即执行；
+     * 用于必须晚于缓存失效的动作，例如递增 ETag 版本号
+     */
+    public static void afterCommitCompleted(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_COMMITTED) {
+                        action.run();
+                    }
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
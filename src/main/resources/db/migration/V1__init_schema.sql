@@ -0,0 +1,49 @@
+-- 初始表结构，与原先 ddl-auto: update 按实体生成的结构一致；
+-- 已有数据库由 baseline-on-migrate 记为版本 1，直接从 V2 开始执行
+
+create table `user` (
+    id       bigint       not null auto_increment,
+    username varchar(255) not null,
+    password varchar(255),
+    role     varchar(255),
+    primary key (id),
+    constraint uk_user_username unique (username)
+) engine = InnoDB;
+
+create table category (
+    id         bigint      not null auto_increment,
+    name       varchar(50) not null,
+    created_at datetime(6),
+    updated_at datetime(6),
+    primary key (id),
+    constraint uk_category_name unique (name)
+) engine = InnoDB;
+
+create table book (
+    id          bigint         not null auto_increment,
+    title       varchar(200)   not null,
+    author      varchar(100),
+    isbn        varchar(50),
+    description text,
+    stock       integer        not null,
+    price       decimal(10, 2),
+    category_id bigint,
+    created_at  datetime(6),
+    updated_at  datetime(6),
+    primary key (id),
+    constraint fk_book_category foreign key (category_id) references category (id)
+) engine = InnoDB;
+
+create table borrow (
+    id          bigint      not null auto_increment,
+    user_id     bigint      not null,
+    book_id     bigint      not null,
+    borrow_time datetime(6) not null,
+    return_time datetime(6),
+    returned    bit         not null,
+    created_at  datetime(6),
+    updated_at  datetime(6),
+    primary key (id),
+    constraint fk_borrow_user foreign key (user_id) references `user` (id),
+    constraint fk_borrow_book foreign key (book_id) references book (id)
+) engine = InnoDB;
@@ -0,0 +1,20 @@
+-- 热点查询索引
+
+-- 用户借阅记录（findDTOByUserId、findByUser）、用户是否已借某书（findByUserAndBookAndReturnedFalse、批量借阅）
+create index idx_borrow_user_returned on borrow (user_id, returned, book_id);
+
+-- 某本书的在借记录
+create index idx_borrow_book_returned on borrow (book_id, returned);
+
+-- 逾期统计：returned = false and borrow_time < ?
+create index idx_borrow_returned_borrow_time on borrow (returned, borrow_time);
+
+-- 按分类查询图书（findByCategory、分类筛选分页）
+create index idx_book_category on book (category_id, id);
+
+create index idx_book_isbn on book (isbn);
+
+create index idx_book_title on book (title);
+
+-- 按更新时间的游标分页（sort=updatedAt，id 为决胜键）
+create index idx_book_updated_at on book (updated_at, id);
@@ -0,0 +1,11 @@
+-- 借阅应还时间；已有记录按默认借阅期限 30 天回填
+alter table borrow add column due_time datetime(6);
+
+update borrow set due_time = timestampadd(day, 30, borrow_time) where due_time is null;
+
+alter table borrow modify due_time datetime(6) not null;
+
+-- 逾期判断改为按应还时间：returned = false and due_time < ?
+drop index idx_borrow_returned_borrow_time on borrow;
+
+create index idx_borrow_returned_due_time on borrow (returned, due_time);
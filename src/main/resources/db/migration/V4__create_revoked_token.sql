@@ -0,0 +1,12 @@
+-- 已吊销的 Token（按 jti）：启动时加载到内存拒绝名单，过期后由定时任务清理
+create table revoked_token (
+    jti        varchar(36) not null,
+    expires_at datetime(6) not null,
+    revoked_at datetime(6) not null,
+    primary key (jti)
+) engine = InnoDB;
+
+create index idx_revoked_token_expires_at on revoked_token (expires_at);
+
+-- 多实例部署时各实例按吊销时间增量同步
+create index idx_revoked_token_revoked_at on revoked_token (revoked_at);
@@ -0,0 +1,2 @@
+-- 图书乐观锁版本号：只保护书名、分类等元数据的修改，库存由条件更新原子增减，不递增版本号
+alter table book add column version bigint not null default 0;
@@ -0,0 +1,12 @@
+-- 库存引擎的增量日志：借还在各自事务内写入库存增减，定时合并到 book.stock 后删除；
+-- 图书的实际库存 = book.stock + 该图书尚未合并的日志增量之和
+create table inventory_journal (
+    id         bigint      not null auto_increment,
+    book_id    bigint      not null,
+    delta      int         not null,
+    created_at datetime(6) not null,
+    primary key (id)
+) engine = InnoDB;
+
+-- 按图书加载计数器时汇总该图书尚未合并的增量
+create index idx_inventory_journal_book on inventory_journal (book_id);
@@ -0,0 +1,8 @@
+-- updated_at 是 keyset 分页的排序键，为空时无法编码游标；回填后改为非空，直接写库的插入由默认值兜底
+update book set updated_at = coalesce(created_at, current_timestamp(6)) where updated_at is null;
+
+update book set created_at = updated_at where created_at is null;
+
+alter table book modify created_at datetime(6) not null default current_timestamp(6);
+
+alter table book modify updated_at datetime(6) not null default current_timestamp(6);
@@ -0,0 +1,150 @@
+package com.library.config;
+
+import com.library.common.LoginUser;
+import com.library.entity.Book;
+import com.library.entity.User;
+import com.library.repository.UserRepository;
+import com.library.service.BookService;
+import com.library.service.BorrowService;
+import com.library.util.PrimaryReads;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 主从路由：主库和从库是两个不同的 H2 内存库，同名关键字的图书在两边各放一本，
+ * 按查到的是哪一本判断查询走了哪个库
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.datasource.url=" + ReadReplicaRoutingTest.PRIMARY_URL,
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "library.datasource.replica.enabled=true",
+        "library.datasource.replica.url=" + ReadReplicaRoutingTest.REPLICA_URL,
+        "library.datasource.replica.username=sa",
+        "library.datasource.replica.password=",
+        "jwt.secret=library-test-secret-key-at-least-256-bits-long-0123456789abcdef"
+})
+class ReadReplicaRoutingTest {
+
+    static final String PRIMARY_URL =
+            "jdbc:h2:mem:routing-primary;MODE=MySQL;NON_KEYWORDS=USER;DB_CLOSE_DELAY=-1;IGNORE_UNKNOWN_SETTINGS=TRUE";
+    static final String REPLICA_URL =
+            "jdbc:h2:mem:routing-replica;MODE=MySQL;NON_KEYWORDS=USER;DB_CLOSE_DELAY=-1;IGNORE_UNKNOWN_SETTINGS=TRUE";
+
+    private static final String KEYWORD = "路由测试";
+    private static final String ON_PRIMARY = KEYWORD + "-主库";
+    private static final String ON_REPLICA = KEYWORD + "-从库";
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private BorrowService borrowService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replicaDataSource;
+
+    private Long primaryBookId;
+
+    /**
+     * 生产环境的从库由复制得到表结构，这里在 Spring 上下文创建之前（上下文在创建测试实例时才加载）
+     * 用同一套迁移脚本建好从库，启动阶段走从库的只读查询才不会失败
+     */
+    @BeforeAll
+    static void migrateReplica() {
+        Flyway.configure().dataSource(REPLICA_URL, "sa", "").load().migrate();
+    }
+
+    @BeforeEach
+    void seed() {
+        JdbcTemplate primary = new JdbcTemplate(primaryDataSource);
+        JdbcTemplate replica = new JdbcTemplate(replicaDataSource);
+        primary.update("delete from borrow");
+        primary.update("delete from book where title like ?", KEYWORD + "%");
+        replica.update("delete from book where title like ?", KEYWORD + "%");
+        primary.update("insert into book (title, stock) values (?, 5)", ON_PRIMARY);
+        replica.update("insert into book (title, stock) values (?, 5)", ON_REPLICA);
+        primaryBookId = primary.queryForObject("select id from book where title = ?", Long.class, ON_PRIMARY);
+    }
+
+    @AfterEach
+    void logout() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void readOnlyTransactionsUseReplica() {
+        assertThat(scrollTitles()).containsExactly(ON_REPLICA);
+    }
+
+    @Test
+    void primaryReadsStayOnPrimary() {
+        // @PrimaryRead 标注的只读方法
+        assertThat(bookService.findByTitleContaining(KEYWORD)).extracting(Book::getTitle).containsExactly(ON_PRIMARY);
+        // 编程式的 PrimaryReads 范围
+        assertThat(PrimaryReads.call(this::scrollTitles)).containsExactly(ON_PRIMARY);
+        // 范围结束后恢复走从库
+        assertThat(scrollTitles()).containsExactly(ON_REPLICA);
+    }
+
+    @Test
+    void readsAfterOwnBorrowUsePrimaryWithinWindow() {
+        User reader = createUser("routing-reader");
+        User other = createUser("routing-other");
+
+        login(reader);
+        assertThat(scrollTitles()).containsExactly(ON_REPLICA);
+        borrowService.borrowBook(reader.getId(), primaryBookId);
+        assertThat(scrollTitles()).containsExactly(ON_PRIMARY);
+
+        // 窗口只针对写入者本人，其他用户仍读从库
+        login(other);
+        assertThat(scrollTitles()).containsExactly(ON_REPLICA);
+    }
+
+    private List<String> scrollTitles() {
+        return bookService.scroll(null, KEYWORD, Sort.by("id"), ScrollPosition.keyset(), 10)
+                .getContent().stream().map(Book::getTitle).toList();
+    }
+
+    private User createUser(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword("password");
+        user.setRole("user");
+        return userRepository.save(user);
+    }
+
+    private static void login(User user) {
+        LoginUser principal = new LoginUser(user.getId(), user.getUsername(), user.getRole());
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                principal, null, List.of(new SimpleGrantedAuthority("ROLE_USER"))));
+    }
+}
@@ -0,0 +1,72 @@
+package com.library.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 名额的占用与归还：同步请求在 doFilter 返回时归还，异步请求到异步处理结束时归还，健康检查不占名额
+ */
+class DbConcurrencyLimitFilterTest {
+
+    private final DbConcurrencyLimitFilter filter = new DbConcurrencyLimitFilter(1, 10, new ObjectMapper());
+
+    @Test
+    void releasesPermitWhenSyncRequestReturns() throws Exception {
+        assertThat(send("/api/books").getStatus()).isEqualTo(200);
+        assertThat(send("/api/books").getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void holdsPermitUntilAsyncRequestCompletes() throws Exception {
+        MockHttpServletRequest exportRequest = startExport();
+
+        // 导出仍在进行，唯一的名额被占用
+        MockHttpServletResponse busy = send("/api/books");
+        assertThat(busy.getStatus()).isEqualTo(503);
+        assertThat(busy.getHeader("Retry-After")).isEqualTo("1");
+
+        ((MockAsyncContext) exportRequest.getAsyncContext()).complete();
+        assertThat(send("/api/books").getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void healthCheckBypassesLimit() throws Exception {
+        startExport();
+
+        AtomicInteger handled = new AtomicInteger();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request("/api/health"), response, (req, res) -> handled.incrementAndGet());
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(handled.get()).isEqualTo(1);
+    }
+
+    /**
+     * 模拟流式导出：控制器返回后请求进入异步处理，doFilter 返回时响应尚未结束
+     */
+    private MockHttpServletRequest startExport() throws Exception {
+        MockHttpServletRequest request = request("/api/export/books");
+        request.setAsyncSupported(true);
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> req.startAsync());
+        return request;
+    }
+
+    private MockHttpServletResponse send(String path) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request(path), response, new MockFilterChain());
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.setServletPath(path);
+        return request;
+    }
+}
@@ -0,0 +1,215 @@
+package com.library.repository;
+
+import com.library.entity.Category;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIf;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.MySQLContainer;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 热点查询的索引校验：在真实 MySQL 上按 Flyway 迁移建表，执行 Hibernate 实际生成的 SQL 的 EXPLAIN，
+ * 断言命中 V2/V3 中为其建立的索引，防止实体或查询改动后悄悄退化为全表扫描。
+ * <p>
+ * 优先使用 -Dlibrary.test.mysql.url（及 .username/.password）指定的库，否则用 Testcontainers 启动 MySQL 8；
+ * 两者都没有时跳过。CI 上加 -Dlibrary.test.mysql.required=true，缺少 MySQL 时直接失败而不是跳过
+ */
+@EnabledIf(value = "mysqlAvailable", disabledReason = "没有 Docker，也未通过 -Dlibrary.test.mysql.url 指定 MySQL")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.format_sql=false",
+        "spring.jpa.properties.hibernate.use_sql_comments=false",
+        "jwt.secret=library-test-secret-key-at-least-256-bits-long-0123456789abcdef"
+})
+class QueryIndexUsageTest {
+
+    private static final String EXTERNAL_URL = System.getProperty("library.test.mysql.url");
+
+    private static final int CATEGORIES = 40;
+    private static final int BOOKS = 400;
+    private static final int HOT_BOOKS = 20;
+    private static final int USERS = 200;
+    private static final int BORROWS = 4000;
+
+    private static MySQLContainer<?> mysql;
+
+    // Hibernate 生成的 SQL，每个用例执行前清空
+    private static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+    static boolean mysqlAvailable() {
+        return EXTERNAL_URL != null
+                || Boolean.getBoolean("library.test.mysql.required")
+                || DockerClientFactory.instance().isDockerAvailable();
+    }
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        if (EXTERNAL_URL != null) {
+            registry.add("spring.datasource.url", () -> EXTERNAL_URL);
+            registry.add("spring.datasource.username", () -> System.getProperty("library.test.mysql.username", "root"));
+            registry.add("spring.datasource.password", () -> System.getProperty("library.test.mysql.password", ""));
+            return;
+        }
+        // 容器由 Testcontainers 在 JVM 退出时清理
+        mysql = new MySQLContainer<>("mysql:8.0");
+        mysql.start();
+        registry.add("spring.datasource.url", mysql::getJdbcUrl);
+        registry.add("spring.datasource.username", mysql::getUsername);
+        registry.add("spring.datasource.password", mysql::getPassword);
+    }
+
+    @TestConfiguration
+    static class SqlRecorderConfig {
+
+        @Bean
+        HibernatePropertiesCustomizer sqlRecorder() {
+            return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, (StatementInspector) sql -> {
+                STATEMENTS.add(sql);
+                return sql;
+            });
+        }
+    }
+
+    @Autowired
+    private BorrowRepository borrowRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * 数据量和分布让各查询的条件都有足够的选择性，优化器才会按生产环境的方式选索引：
+     * 每个分类 10 本书；借阅集中在前 20 本热门图书上，每个用户 20 条，约 10% 未归还。
+     * 外部指定的库可能不是空库，先清空相关表
+     */
+    @BeforeAll
+    static void seed(@Autowired JdbcTemplate jdbcTemplate) {
+        for (String table : List.of("borrow", "book", "category", "`user`")) {
+            jdbcTemplate.execute("delete from " + table);
+            jdbcTemplate.execute("alter table " + table + " auto_increment = 1");
+        }
+
+        List<Object[]> categories = new ArrayList<>();
+        for (int i = 1; i <= CATEGORIES; i++) {
+            categories.add(new Object[]{"分类" + i});
+        }
+        jdbcTemplate.batchUpdate("insert into category (name) values (?)", categories);
+
+        List<Object[]> books = new ArrayList<>();
+        for (int i = 1; i <= BOOKS; i++) {
+            books.add(new Object[]{"图书" + i, 10, (i - 1) % CATEGORIES + 1});
+        }
+        jdbcTemplate.batchUpdate("insert into book (title, stock, category_id) values (?, ?, ?)", books);
+
+        List<Object[]> users = new ArrayList<>();
+        for (int i = 1; i <= USERS; i++) {
+            users.add(new Object[]{"reader" + i, "password", "user"});
+        }
+        jdbcTemplate.batchUpdate("insert into `user` (username, password, role) values (?, ?, ?)", users);
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> borrows = new ArrayList<>();
+        for (int i = 0; i < BORROWS; i++) {
+            boolean returned = i % 10 != 0;
+            // 未归还的记录中约三分之一已逾期
+            LocalDateTime due = i % 30 == 0 ? now.minusDays(3) : now.plusDays(20);
+            borrows.add(new Object[]{i % USERS + 1, i % HOT_BOOKS + 1, Timestamp.valueOf(due.minusDays(30)),
+                    Timestamp.valueOf(due), returned});
+        }
+        jdbcTemplate.batchUpdate("insert into borrow (user_id, book_id, borrow_time, due_time, returned) values (?, ?, ?, ?, ?)",
+                borrows);
+
+        jdbcTemplate.execute("analyze table category, book, `user`, borrow");
+    }
+
+    @Test
+    void findByUserUsesUserIndex() {
+        STATEMENTS.clear();
+        borrowRepository.findByUser(userRepository.getReferenceById(7L));
+        assertUsesIndex("idx_borrow_user_returned", 7L);
+    }
+
+    @Test
+    void findByUserAndBookAndReturnedFalseUsesUserIndex() {
+        STATEMENTS.clear();
+        borrowRepository.findByUserAndBookAndReturnedFalse(userRepository.getReferenceById(7L),
+                bookRepository.getReferenceById(3L));
+        assertUsesIndex("idx_borrow_user_returned", 7L, 3L);
+    }
+
+    @Test
+    void findDTOByUserIdUsesUserIndex() {
+        STATEMENTS.clear();
+        borrowRepository.findDTOByUserId(7L);
+        assertUsesIndex("idx_borrow_user_returned", 7L);
+    }
+
+    @Test
+    void findActiveBookIdsUsesUserIndex() {
+        STATEMENTS.clear();
+        borrowRepository.findActiveBookIds(7L, List.of(3L, 8L));
+        assertUsesIndex("idx_borrow_user_returned", 7L, 3L, 8L);
+    }
+
+    @Test
+    void findByCategoryUsesCategoryIndex() {
+        Category category = new Category();
+        category.setId(5L);
+        STATEMENTS.clear();
+        bookRepository.findByCategory(category);
+        assertUsesIndex("idx_book_category", 5L);
+    }
+
+    @Test
+    void countOverdueUsesDueTimeIndex() {
+        LocalDateTime now = LocalDateTime.now();
+        STATEMENTS.clear();
+        borrowRepository.countByReturnedFalseAndDueTimeBefore(now);
+        assertUsesIndex("idx_borrow_returned_due_time", Timestamp.valueOf(now));
+    }
+
+    /**
+     * 对最近一条查询执行 EXPLAIN，断言某一行使用了 expected 索引；参数按 SQL 中占位符的顺序传入
+     */
+    private void assertUsesIndex(String expected, Object... args) {
+        List<String> selects = STATEMENTS.stream()
+                .filter(sql -> sql.trim().toLowerCase().startsWith("select"))
+                .toList();
+        assertThat(selects).as("未捕获到查询语句").isNotEmpty();
+        String sql = selects.get(selects.size() - 1);
+
+        List<Map<String, Object>> plan = jdbcTemplate.queryForList("explain " + sql, args);
+        List<String> keys = plan.stream()
+                .map(row -> row.get("key"))
+                .filter(Objects::nonNull)
+                .map(Object::toString)
+                .collect(Collectors.toList());
+        assertThat(keys).as("SQL: %s%n执行计划: %s", sql, plan).contains(expected);
+    }
+}
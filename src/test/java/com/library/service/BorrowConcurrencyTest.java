@@ -0,0 +1,286 @@
+package com.library.service;
+
+import com.library.config.MetricsConfig;
+import com.library.dto.BatchItemResultDTO;
+import com.library.dto.BatchResultDTO;
+import com.library.entity.Book;
+import com.library.entity.Borrow;
+import com.library.entity.User;
+import com.library.exception.BusinessException;
+import com.library.repository.BookRepository;
+import com.library.repository.BorrowRepository;
+import com.library.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * 借还的并发正确性与吞吐：库存扣减/归还走与生产相同的条件更新和原子自增，不超卖、借还后库存守恒。
+ * 使用 H2 内存库（MySQL 兼容模式），表结构由应用自身的建表方式生成，与生产一致。
+ * H2 默认的行锁等待只有 1 秒左右，几十个线程排队等同一行时在慢机器上会超时（Hikari 随即关闭该连接），
+ * 改为 10 秒，接近 MySQL 的 innodb_lock_wait_timeout 下的行为。
+ * 并发插入借阅记录在 H2 的 MySQL 兼容模式下会分到重复的自增ID，额外加载 db/h2 中的修正
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.datasource.url=jdbc:h2:mem:borrow-concurrency;MODE=MySQL;NON_KEYWORDS=USER;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000;IGNORE_UNKNOWN_SETTINGS=TRUE",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.hikari.maximum-pool-size=32",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.flyway.locations=classpath:db/migration,classpath:db/h2",
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=WARN",
+        "jwt.secret=library-test-secret-key-at-least-256-bits-long-0123456789abcdef"
+})
+class BorrowConcurrencyTest {
+
+    private static final int THREADS = 32;
+
+    // 吞吐对比：每轮的借还次数
+    private static final int ROUND_TRIPS = 1000;
+
+    private static final AtomicInteger NEXT_USER = new AtomicInteger();
+
+    @Autowired
+    private BorrowService borrowService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private BorrowRepository borrowRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * 数千个用户同时借一本只有 50 本库存的书：恰好 50 次成功，其余都是库存不足，库存最终为 0
+     */
+    @Test
+    void concurrentBorrowsNeverOversell() throws Exception {
+        int initialStock = 50;
+        int borrowers = 3000;
+        Long bookId = createBook(initialStock);
+        List<Long> userIds = createUsers(borrowers);
+
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger outOfStock = new AtomicInteger();
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (Long userId : userIds) {
+            tasks.add(() -> {
+                try {
+                    borrowService.borrowBook(userId, bookId);
+                    succeeded.incrementAndGet();
+                } catch (BusinessException e) {
+                    outOfStock.incrementAndGet();
+                }
+                return null;
+            });
+        }
+        runConcurrently(THREADS, tasks);
+
+        assertThat(succeeded.get()).isEqualTo(initialStock);
+        assertThat(outOfStock.get()).isEqualTo(borrowers - initialStock);
+        assertThat(stockOf(bookId)).isZero();
+        assertThat(openBorrows(bookId)).isEqualTo(initialStock);
+    }
+
+    /**
+     * 借了立即还，反复进行：库存少于并发数，借阅会因库存不足失败，归还走原子自增；
+     * 结束后库存回到初始值、没有未归还记录，过程中库存从不为负
+     */
+    @Test
+    void borrowAndReturnRoundTripsConserveStock() throws Exception {
+        int initialStock = 8;
+        int users = 64;
+        int roundsPerUser = 50;
+        Long bookId = createBook(initialStock);
+        List<Long> userIds = createUsers(users);
+
+        AtomicInteger borrowed = new AtomicInteger();
+        AtomicInteger returned = new AtomicInteger();
+        AtomicInteger negativeObserved = new AtomicInteger();
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (Long userId : userIds) {
+            tasks.add(() -> {
+                for (int i = 0; i < roundsPerUser; i++) {
+                    Borrow borrow;
+                    try {
+                        borrow = borrowService.borrowBook(userId, bookId);
+                    } catch (BusinessException e) {
+                        continue;
+                    }
+                    borrowed.incrementAndGet();
+                    if (stockOf(bookId) < 0) {
+                        negativeObserved.incrementAndGet();
+                    }
+                    borrowService.returnBook(borrow.getId());
+                    returned.incrementAndGet();
+                }
+                return null;
+            });
+        }
+        runConcurrently(THREADS, tasks);
+
+        assertThat(borrowed.get()).isPositive();
+        assertThat(returned.get()).isEqualTo(borrowed.get());
+        assertThat(negativeObserved.get()).isZero();
+        assertThat(stockOf(bookId)).isEqualTo(initialStock);
+        assertThat(openBorrows(bookId)).isZero();
+    }
+
+    /**
+     * 尽力模式的批量借阅：热门书被并发借完时只有这一项记为库存不足，同批的其他图书照常借出；
+     * 逐项扣减不会出现乐观锁冲突，也就不依赖重试（重试耗尽时整批返回 409）
+     */
+    @Test
+    void bestEffortBatchBorrowFailsOnlyExhaustedItems() throws Exception {
+        int hotStock = 20;
+        int borrowers = 300;
+        Long hotBookId = createBook(hotStock);
+        Long plentyBookId = createBook(borrowers);
+        List<Long> userIds = createUsers(borrowers);
+
+        AtomicInteger hotBorrowed = new AtomicInteger();
+        AtomicInteger plentyBorrowed = new AtomicInteger();
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (Long userId : userIds) {
+            tasks.add(() -> {
+                BatchResultDTO result = borrowService.borrowBooks(userId, List.of(hotBookId, plentyBookId), false);
+                BatchItemResultDTO hot = result.getItems().get(0);
+                if (hot.getSuccess()) {
+                    hotBorrowed.incrementAndGet();
+                } else {
+                    assertThat(hot.getMessage()).isEqualTo("库存不足");
+                }
+                if (result.getItems().get(1).getSuccess()) {
+                    plentyBorrowed.incrementAndGet();
+                }
+                return null;
+            });
+        }
+        runConcurrently(THREADS, tasks);
+
+        double conflicts = meterRegistry.find(MetricsConfig.OPTIMISTIC_CONFLICTS)
+                .tag("method", "BorrowServiceImpl.borrowBooks")
+                .counters().stream().mapToDouble(Counter::count).sum();
+        assertThat(conflicts).isZero();
+        assertThat(hotBorrowed.get()).isEqualTo(hotStock);
+        assertThat(plentyBorrowed.get()).isEqualTo(borrowers);
+        assertThat(stockOf(hotBookId)).isZero();
+        assertThat(stockOf(plentyBookId)).isZero();
+        assertThat(openBorrows(hotBookId)).isEqualTo(hotStock);
+    }
+
+    /**
+     * 1 个线程与 N 个线程完成同样次数的借还：每个线程借还各自的图书，没有热点行争用，吞吐应随核数增长；
+     * 任何机器上多线程都不应比单线程明显更慢（例如借还路径上出现全局锁）
+     */
+    @Test
+    void throughputScalesWithThreads() throws Exception {
+        int cores = Runtime.getRuntime().availableProcessors();
+        int threads = Math.max(2, Math.min(cores, 8));
+        // 预热，避免第一轮包含 JIT 和连接池初始化的开销
+        roundTripsPerSecond(threads, ROUND_TRIPS / 2);
+
+        double single = roundTripsPerSecond(1, ROUND_TRIPS);
+        double parallel = roundTripsPerSecond(threads, ROUND_TRIPS);
+        System.out.printf("借还吞吐: 1 线程 %.0f 次/秒, %d 线程 %.0f 次/秒 (%.2fx, %d 核)%n",
+                single, threads, parallel, parallel / single, cores);
+
+        assertThat(parallel).isGreaterThan(single * 0.5);
+        assumeTrue(cores >= 4, "少于 4 核时不校验扩展倍数");
+        assertThat(parallel).isGreaterThan(single * 1.2);
+    }
+
+    private double roundTripsPerSecond(int threads, int total) throws Exception {
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Long bookId = createBook(1);
+            Long userId = createUsers(1).get(0);
+            int count = total / threads;
+            tasks.add(() -> {
+                for (int i = 0; i < count; i++) {
+                    Borrow borrow = borrowService.borrowBook(userId, bookId);
+                    borrowService.returnBook(borrow.getId());
+                }
+                return null;
+            });
+        }
+        long start = System.nanoTime();
+        runConcurrently(threads, tasks);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        return (total / threads) * threads / seconds;
+    }
+
+    /**
+     * 所有任务就绪后同时放行，尽量让操作在同一时刻争抢库存；任一任务抛出非业务异常时测试失败
+     */
+    private static void runConcurrently(int threads, List<Callable<Void>> tasks) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (Callable<Void> task : tasks) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return task.call();
+                }));
+            }
+            start.countDown();
+            for (Future<Void> future : futures) {
+                future.get(120, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Long createBook(int stock) {
+        Book book = new Book();
+        book.setTitle("并发借阅测试");
+        book.setStock(stock);
+        return bookRepository.save(book).getId();
+    }
+
+    private List<Long> createUsers(int count) {
+        List<User> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            User user = new User();
+            user.setUsername("concurrent" + NEXT_USER.incrementAndGet());
+            user.setPassword("password");
+            user.setRole("user");
+            users.add(user);
+        }
+        return userRepository.saveAll(users).stream().map(User::getId).toList();
+    }
+
+    private int stockOf(Long bookId) {
+        return bookRepository.findById(bookId).orElseThrow().getStock();
+    }
+
+    private long openBorrows(Long bookId) {
+        return borrowRepository.findAll().stream()
+                .filter(borrow -> borrow.getBook().getId().equals(bookId) && !borrow.getReturned())
+                .count();
+    }
+}
@@ -0,0 +1,149 @@
+package com.library.service;
+
+import com.library.entity.Book;
+import com.library.entity.User;
+import com.library.exception.BusinessException;
+import com.library.repository.BookRepository;
+import com.library.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 启用库存引擎时的抢借校验，与 InventoryStressBenchmark 的负载相同：少量热门图书、库存远小于并发需求，
+ * 所有线程随机借还，期间定时合并照常运行。结束后合并日志，逐本校验 book.stock 不为负、
+ * book.stock + 未归还借阅数 == 初始库存（没有超卖也没有丢失），且计数器与数据库一致
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.datasource.url=jdbc:h2:mem:inventory-stress;MODE=MySQL;NON_KEYWORDS=USER;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000;IGNORE_UNKNOWN_SETTINGS=TRUE",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.hikari.maximum-pool-size=32",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        // 并发写入增量日志，需要 db/h2 中对 H2 自增列的修正
+        "spring.flyway.locations=classpath:db/migration,classpath:db/h2",
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=WARN",
+        "library.inventory.enabled=true",
+        "library.inventory.flush-interval=200",
+        "jwt.secret=library-test-secret-key-at-least-256-bits-long-0123456789abcdef"
+})
+class InventoryStressTest {
+
+    private static final int THREADS = 32;
+    private static final int HOT_BOOKS = 10;
+    private static final int INITIAL_STOCK = 8;
+    private static final int USERS_PER_THREAD = 8;
+    private static final int OPERATIONS_PER_THREAD = 150;
+    // 每个线程同时持有的借阅上限：32 个线程最多需要 128 本，热门图书共 80 本
+    private static final int MAX_OPEN_PER_THREAD = 4;
+
+    private static final String COUNT_OPEN_SQL = "select count(*) from borrow where book_id = ? and returned = false";
+
+    @Autowired
+    private BorrowService borrowService;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void concurrentBorrowsAndReturnsKeepStockConsistent() throws Exception {
+        assertThat(inventoryService.isEnabled()).isTrue();
+        List<Long> bookIds = new ArrayList<>();
+        for (int i = 0; i < HOT_BOOKS; i++) {
+            Book book = new Book();
+            book.setTitle("库存引擎压测 " + i);
+            book.setStock(INITIAL_STOCK);
+            bookIds.add(bookRepository.save(book).getId());
+        }
+
+        AtomicInteger borrowed = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        AtomicInteger returned = new AtomicInteger();
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            List<Long> userIds = createUsers(t);
+            tasks.add(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                Deque<Long> open = new ArrayDeque<>();
+                for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                    // 达到持有上限或随机选中时归还最早的一本，否则随机借一本热门图书
+                    if (open.size() >= MAX_OPEN_PER_THREAD || (!open.isEmpty() && random.nextBoolean())) {
+                        borrowService.returnBook(open.poll());
+                        returned.incrementAndGet();
+                        continue;
+                    }
+                    Long userId = userIds.get(random.nextInt(USERS_PER_THREAD));
+                    Long bookId = bookIds.get(random.nextInt(HOT_BOOKS));
+                    try {
+                        open.add(borrowService.borrowBook(userId, bookId).getId());
+                        borrowed.incrementAndGet();
+                    } catch (BusinessException e) {
+                        // 库存不足，或该用户已借过这本书
+                        rejected.incrementAndGet();
+                    }
+                }
+                return null;
+            });
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            for (Future<Void> future : executor.invokeAll(tasks)) {
+                future.get(120, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(borrowed.get()).isPositive();
+        assertThat(rejected.get()).isPositive();
+        assertThat(returned.get()).isPositive();
+
+        inventoryService.flush();
+        for (Long bookId : bookIds) {
+            int stock = bookRepository.findById(bookId).orElseThrow().getStock();
+            long openBorrows = jdbcTemplate.queryForObject(COUNT_OPEN_SQL, Long.class, bookId);
+            assertThat(stock).as("bookId=%d 的库存", bookId).isGreaterThanOrEqualTo(0);
+            assertThat(stock + openBorrows).as("bookId=%d 的库存 + 未归还借阅数", bookId).isEqualTo(INITIAL_STOCK);
+            assertThat(inventoryService.available(bookId)).as("bookId=%d 的计数器", bookId).isEqualTo(stock);
+        }
+    }
+
+    private List<Long> createUsers(int thread) {
+        List<User> users = new ArrayList<>(USERS_PER_THREAD);
+        for (int i = 0; i < USERS_PER_THREAD; i++) {
+            User user = new User();
+            user.setUsername("inventory" + thread + "-" + i);
+            user.setPassword("password");
+            user.setRole("user");
+            users.add(user);
+        }
+        return userRepository.saveAll(users).stream().map(User::getId).toList();
+    }
+}
@@ -0,0 +1,10 @@
+-- 仅用于 H2 上的并发测试，测试通过 spring.flyway.locations 额外加入 classpath:db/h2 时，Flyway 在每次迁移后执行。
+-- H2 的 MySQL 兼容模式下每次插入自增列都会回调整自增序列，并发插入时会分配到重复的ID（主键冲突）；
+-- 把并发写入的两张表的ID改为取独立序列的默认值，不再经过这段逻辑。应用从不显式写入这些ID，MySQL 上的表结构不受影响
+create sequence if not exists borrow_id_seq;
+alter table borrow alter column id drop identity;
+alter table borrow alter column id set default next value for borrow_id_seq;
+
+create sequence if not exists inventory_journal_id_seq;
+alter table inventory_journal alter column id drop identity;
+alter table inventory_journal alter column id set default next value for inventory_journal_id_seq;